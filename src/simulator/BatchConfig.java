@@ -0,0 +1,282 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Class BatchConfig, the settings of a headless BatchSimulation: the map, the fleet, the requests and when the run stops.
+ * Requests can be scripted for a given tick, generated at random at a fixed interval, or both.
+ * Everything random is drawn from a single seeded random number generator, and the default planners stop at a
+ * generation limit rather than a time budget, so the same configuration always gives the same run when trajectories
+ * are planned on the simulation thread. Planners with a time budget plan less on a busy machine, so their runs are not
+ * repeatable.
+ * It is built with its Builder, like the Planner.
+ *
+ * @inv robots > 0 &amp;&amp; obstacles &ge; 0 &amp;&amp; maxTicks > 0 &amp;&amp; plannerThreads &ge; 0
+ * @inv randomRequests &ge; 0 &amp;&amp; requestInterval > 0
+ * @inv scriptedRequests != null &amp;&amp; plannerFactory != null &amp;&amp; engine != null &amp;&amp; dispatch != null
+ */
+public class BatchConfig {
+
+    /**
+     * A request released to the fleet at a given tick.
+     *
+     * @param tick    tick the request is added to the queue, before the robots are updated
+     * @param request the request
+     */
+    public record ScheduledRequest(int tick, Request request) {
+        /**
+         * @pre tick &ge; 0 &amp;&amp; request != null
+         * @throws IllegalArgumentException if tick is negative or request is null
+         */
+        public ScheduledRequest {
+            if (tick < 0 || request == null) throw new IllegalArgumentException("Requests need a request and a non negative tick");
+        }
+    }
+
+    private final long seed;
+    private final int robots;
+    private final int obstacles;
+    private final int maxTicks;
+    private final int plannerThreads;
+    private final int randomRequests;
+    private final int requestInterval;
+    private final List<ScheduledRequest> scriptedRequests;
+    private final BiFunction<DeliveryMap, Random, PathPlanner> plannerFactory;
+    private final SimulationEngine engine;
+    private final DispatchMode dispatch;
+
+    private BatchConfig(Builder builder) {
+        this.seed = builder.seed;
+        this.robots = builder.robots;
+        this.obstacles = builder.obstacles;
+        this.maxTicks = builder.maxTicks;
+        this.plannerThreads = builder.plannerThreads;
+        this.randomRequests = builder.randomRequests;
+        this.requestInterval = builder.requestInterval;
+        this.scriptedRequests = Collections.unmodifiableList(new ArrayList<>(builder.scriptedRequests));
+        this.plannerFactory = builder.plannerFactory;
+        this.engine = builder.engine;
+        this.dispatch = builder.dispatch;
+    }
+
+    /**
+     * Builder class for BatchConfig.
+     */
+    public static class Builder {
+        private long seed = 0; // default is 0
+        private int robots = 10; // default is 10
+        private int obstacles = 20; // default is 20
+        private int maxTicks = 100_000; // default is 100000
+        private int plannerThreads = 0; // default plans on the simulation thread
+        private int randomRequests = 0; // default is only the scripted requests
+        private int requestInterval = 10; // default is 10
+        private final List<ScheduledRequest> scriptedRequests = new ArrayList<>();
+        private BiFunction<DeliveryMap, Random, PathPlanner> plannerFactory = (map, rng) -> new GeneticPathPlanner(map, new PointGenerator(rng), rng); // default has no time budget
+        private SimulationEngine engine = SimulationEngine.EVENT; // default skips the idle ticks
+        private DispatchMode dispatch = DispatchMode.GREEDY; // default is one request per tick, like the simulator
+
+        /**
+         * @param seed seed of the random number generator of the run
+         * @return This Builder instance
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param robots number of robots, spread along the perimeter of the map like in the interactive simulator
+         * @return This Builder instance
+         * @pre robots > 0
+         */
+        public Builder robots(int robots) {
+            this.robots = robots;
+            return this;
+        }
+
+        /**
+         * @param obstacles number of random obstacles on the map
+         * @return This Builder instance
+         * @pre obstacles &ge; 0
+         */
+        public Builder obstacles(int obstacles) {
+            this.obstacles = obstacles;
+            return this;
+        }
+
+        /**
+         * @param maxTicks ticks after which the run stops even if some requests were not delivered
+         * @return This Builder instance
+         * @pre maxTicks > 0
+         */
+        public Builder maxTicks(int maxTicks) {
+            this.maxTicks = maxTicks;
+            return this;
+        }
+
+        /**
+         * @param plannerThreads threads planning trajectories in the background, 0 to plan on the simulation thread,
+         *                       which is the only way runs are repeatable, along with planners without a time budget
+         * @return This Builder instance
+         * @pre plannerThreads &ge; 0
+         */
+        public Builder plannerThreads(int plannerThreads) {
+            this.plannerThreads = plannerThreads;
+            return this;
+        }
+
+        /**
+         * Adds random valid requests, the first released at tick 0 and then one every interval ticks.
+         *
+         * @param count    number of random requests
+         * @param interval ticks between two random requests
+         * @return This Builder instance
+         * @pre count &ge; 0 &amp;&amp; interval > 0
+         */
+        public Builder randomRequests(int count, int interval) {
+            this.randomRequests = count;
+            this.requestInterval = interval;
+            return this;
+        }
+
+        /**
+         * Adds a scripted request.
+         *
+         * @param tick    tick the request is released
+         * @param request the request, it must be valid on the map
+         * @return This Builder instance
+         * @pre tick &ge; 0 &amp;&amp; request != null
+         * @throws IllegalArgumentException if tick is negative or request is null
+         */
+        public Builder request(int tick, Request request) {
+            this.scriptedRequests.add(new ScheduledRequest(tick, request));
+            return this;
+        }
+
+        /**
+         * @param plannerFactory creates the path planner of each robot from the map and the random number generator of the run,
+         *                       runs are only repeatable if the planners do not stop on a time budget
+         * @return This Builder instance
+         * @pre plannerFactory != null
+         */
+        public Builder plannerFactory(BiFunction<DeliveryMap, Random, PathPlanner> plannerFactory) {
+            this.plannerFactory = plannerFactory;
+            return this;
+        }
+
+        /**
+         * @param engine how the simulation advances time
+         * @return This Builder instance
+         * @pre engine != null
+         */
+        public Builder engine(SimulationEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * @param dispatch how the robot manager hands requests to the waiting robots
+         * @return This Builder instance
+         * @pre dispatch != null
+         */
+        public Builder dispatch(DispatchMode dispatch) {
+            this.dispatch = dispatch;
+            return this;
+        }
+
+        /**
+         * @return a new BatchConfig with the settings of this builder
+         * @throws IllegalArgumentException if any setting is out of range
+         */
+        public BatchConfig build() {
+            if (robots <= 0 || obstacles < 0 || maxTicks <= 0 || plannerThreads < 0)
+                throw new IllegalArgumentException("Robots and ticks must be positive, obstacles and planner threads non negative");
+            if (randomRequests < 0 || requestInterval <= 0)
+                throw new IllegalArgumentException("Request count must be non negative and interval positive");
+            if (plannerFactory == null || engine == null || dispatch == null)
+                throw new IllegalArgumentException("Planner factory, engine and dispatch mode cannot be null");
+            return new BatchConfig(this);
+        }
+    }
+
+    /**
+     * @return seed of the random number generator of the run
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return number of robots
+     */
+    public int robots() {
+        return robots;
+    }
+
+    /**
+     * @return number of random obstacles
+     */
+    public int obstacles() {
+        return obstacles;
+    }
+
+    /**
+     * @return ticks after which the run stops
+     */
+    public int maxTicks() {
+        return maxTicks;
+    }
+
+    /**
+     * @return threads planning trajectories in the background, 0 when planning on the simulation thread
+     */
+    public int plannerThreads() {
+        return plannerThreads;
+    }
+
+    /**
+     * @return number of random requests
+     */
+    public int randomRequests() {
+        return randomRequests;
+    }
+
+    /**
+     * @return ticks between two random requests
+     */
+    public int requestInterval() {
+        return requestInterval;
+    }
+
+    /**
+     * @return the scripted requests, in the order they were added
+     */
+    public List<ScheduledRequest> scriptedRequests() {
+        return scriptedRequests;
+    }
+
+    /**
+     * @return the factory of the path planner of each robot
+     */
+    public BiFunction<DeliveryMap, Random, PathPlanner> plannerFactory() {
+        return plannerFactory;
+    }
+
+    /**
+     * @return how the simulation advances time
+     */
+    public SimulationEngine engine() {
+        return engine;
+    }
+
+    /**
+     * @return how the robot manager hands requests to the waiting robots
+     */
+    public DispatchMode dispatch() {
+        return dispatch;
+    }
+}
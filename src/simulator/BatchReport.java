@@ -0,0 +1,48 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Results of a BatchSimulation run.
+ *
+ * @param ticks            ticks simulated
+ * @param released         requests released to the fleet
+ * @param delivered        requests delivered
+ * @param meanLatency      mean ticks from the release of a delivered request to its delivery, NaN if none was delivered
+ * @param p99Latency       99th percentile of those ticks, by nearest rank, 0 if none was delivered
+ * @param ticksPerSecond   ticks simulated per second of wall time
+ * @param plannerTimeShare time spent planning trajectories divided by wall time, above 1 when several planner threads
+ *                         are busy at once
+ */
+public record BatchReport(int ticks, int released, int delivered, double meanLatency, int p99Latency, double ticksPerSecond, double plannerTimeShare) {
+
+    /**
+     * Builds a report from the latencies of the delivered requests and the time measured during the run.
+     *
+     * @param ticks        ticks simulated
+     * @param released     requests released to the fleet
+     * @param latencies    ticks from release to delivery of every delivered request
+     * @param wallNanos    wall time of the run, in nanoseconds
+     * @param plannerNanos time spent planning trajectories, in nanoseconds
+     * @return the report of the run
+     * @pre latencies != null &amp;&amp; wallNanos > 0
+     */
+    static BatchReport of(int ticks, int released, int[] latencies, long wallNanos, long plannerNanos) {
+        int[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(Double.NaN);
+        int p99 = sorted.length == 0 ? 0 : sorted[(int) Math.ceil(0.99 * sorted.length) - 1];
+        return new BatchReport(ticks, released, sorted.length, mean, p99, ticks * 1e9 / wallNanos, (double) plannerNanos / wallNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, """
+                Deliveries completed: %d of %d
+                Mean latency: %.2f ticks
+                P99 latency: %d ticks
+                Ticks: %d, %.1f ticks/sec
+                Planner time share: %.1f%%""", delivered, released, meanLatency, p99Latency, ticks, ticksPerSecond, 100 * plannerTimeShare);
+    }
+}
@@ -0,0 +1,195 @@
+package simulator;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BatchSimulation class runs the simulation without a user interface, as fast as it can.
+ * The map, fleet and requests come from a BatchConfig, robots are placed like in the interactive Simulator, and ticks
+ * run back to back until every request is delivered or the configured number of ticks is reached.
+ * Each tick releases the requests scheduled for it, then updates the robot manager and every robot, like the Simulator.
+ * With the EVENT engine, runs of ticks where the manager cannot hand out any request and no robot would change state
+ * are applied at once, which gives the same results in a fraction of the time on long runs.
+ * The run is summarized in a BatchReport, used to size fleets for a given load.
+ *
+ * @inv config != null
+ */
+public class BatchSimulation {
+
+    private static final int MIN_REQUEST_COORDINATE = 50;
+    private static final int MAX_REQUEST_COORDINATE = 950;
+
+    private final BatchConfig config;
+
+    /**
+     * Creates a new BatchSimulation.
+     *
+     * @param config settings of the run
+     * @pre config != null
+     * @post this.config == config
+     */
+    public BatchSimulation(BatchConfig config) {
+        if (config == null) throw new IllegalArgumentException("Config cannot be null");
+        this.config = config;
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @return the report of the run
+     * @throws IllegalArgumentException if a scripted request is not valid on the generated map
+     * @post every planner thread started by the run is stopped
+     */
+    public BatchReport run() {
+        Random rng = new Random(config.seed());
+        DeliveryMap deliveryMap = new DeliveryMap(Simulator.randomObstacles(config.obstacles(), new ShapeGenerator(rng), rng));
+        List<BatchConfig.ScheduledRequest> schedule = schedule(deliveryMap, rng);
+
+        ExecutorService plannerPool = config.plannerThreads() == 0 ? null : Executors.newFixedThreadPool(config.plannerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Executor plannerExecutor = plannerPool == null ? Runnable::run : plannerPool;
+        try {
+            LongAdder plannerNanos = new LongAdder();
+            PointGenerator pointGenerator = new PointGenerator(rng);
+            Set<Robot> robots = new LinkedHashSet<>(config.robots());
+            for (int i = 0; i < config.robots(); i++) {
+                PathPlanner planner = timed(config.plannerFactory().apply(deliveryMap, rng), plannerNanos);
+                robots.add(new Robot(Simulator.chargingPoint(i, config.robots()), deliveryMap, pointGenerator, rng, plannerExecutor, planner));
+            }
+            RequestQueue requestQueue = new RequestQueue();
+            RobotManager robotManager = new RobotManager(robots, requestQueue, plannerExecutor, config.dispatch());
+
+            // Requests are told apart by identity, the same request may be scheduled twice
+            Map<Request, Integer> releaseTicks = new IdentityHashMap<>();
+            int[] latencies = new int[schedule.size()];
+            int[] delivered = {0};
+            int[] tick = {0};
+            robotManager.setDeliveryListener(request -> latencies[delivered[0]++] = tick[0] - releaseTicks.get(request));
+
+            long start = System.nanoTime();
+            int next = 0;
+            while (tick[0] < config.maxTicks() && delivered[0] < schedule.size()) {
+                for (; next < schedule.size() && schedule.get(next).tick() == tick[0]; next++) {
+                    Request request = schedule.get(next).request();
+                    releaseTicks.put(request, tick[0]);
+                    requestQueue.addRequest(request);
+                }
+                if (config.engine() == SimulationEngine.EVENT) {
+                    int nextRelease = next < schedule.size() ? schedule.get(next).tick() : config.maxTicks();
+                    int quiet = quietTicks(robotManager, robots, Math.min(nextRelease, config.maxTicks()) - tick[0]);
+                    if (quiet > 0) {
+                        robotManager.skipTicks(quiet);
+                        for (Robot robot : robots)
+                            robot.skipTicks(quiet);
+                        tick[0] += quiet;
+                        continue;
+                    }
+                }
+                robotManager.update();
+                for (Robot robot : robots)
+                    robot.update();
+                tick[0]++;
+            }
+            long wallNanos = Math.max(1, System.nanoTime() - start);
+            return BatchReport.of(tick[0], next, Arrays.copyOf(latencies, delivered[0]), wallNanos, plannerNanos.sum());
+        } finally {
+            if (plannerPool != null)
+                plannerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the coming ticks where nothing but energy, positions along paths and the order of requests nobody can
+     * take would change.
+     *
+     * @param robotManager manager of the robots
+     * @param robots       every robot
+     * @param limit        maximum number of ticks to count
+     * @return number of ticks every robot can skip, at most limit
+     */
+    private static int quietTicks(RobotManager robotManager, Set<Robot> robots, int limit) {
+        if (!robotManager.isIdle())
+            return 0;
+        int quiet = limit;
+        for (Robot robot : robots) {
+            quiet = robot.quietTicks(quiet);
+            if (quiet == 0)
+                break;
+        }
+        return quiet;
+    }
+
+    /**
+     * Builds the requests of the run, the scripted ones and the random ones, sorted by tick. Requests released at the
+     * same tick keep the order of the configuration, scripted ones first.
+     *
+     * @param deliveryMap map the requests must be valid on
+     * @param rng         random number generator of the run
+     * @return every request of the run, sorted by tick
+     * @throws IllegalArgumentException if a scripted request is not valid on the map
+     */
+    private List<BatchConfig.ScheduledRequest> schedule(DeliveryMap deliveryMap, Random rng) {
+        List<BatchConfig.ScheduledRequest> schedule = new ArrayList<>(config.scriptedRequests());
+        for (BatchConfig.ScheduledRequest scheduled : schedule)
+            if (!deliveryMap.isDeliveryRequestValid(scheduled.request()))
+                throw new IllegalArgumentException("Scripted request is inside an obstacle or out of bounds: " + scheduled.request());
+        for (int i = 0; i < config.randomRequests(); i++) {
+            Request request;
+            do {
+                request = new Request(randomPoint(rng), randomPoint(rng));
+            } while (!deliveryMap.isDeliveryRequestValid(request));
+            schedule.add(new BatchConfig.ScheduledRequest(i * config.requestInterval(), request));
+        }
+        schedule.sort(Comparator.comparingInt(BatchConfig.ScheduledRequest::tick));
+        return schedule;
+    }
+
+    /**
+     * @param rng random number generator
+     * @return a random point inside the delivery area
+     */
+    private static Point randomPoint(Random rng) {
+        return new Point(rng.nextInt(MIN_REQUEST_COORDINATE, MAX_REQUEST_COORDINATE + 1), rng.nextInt(MIN_REQUEST_COORDINATE, MAX_REQUEST_COORDINATE + 1));
+    }
+
+    /**
+     * Wraps a planner so the time spent in it is added up.
+     *
+     * @param planner      planner to time
+     * @param plannerNanos total time spent planning, in nanoseconds
+     * @return a planner giving the same trajectories as planner
+     */
+    private static PathPlanner timed(PathPlanner planner, LongAdder plannerNanos) {
+        return (start, end) -> {
+            long begin = System.nanoTime();
+            try {
+                return planner.plan(start, end);
+            } finally {
+                plannerNanos.add(System.nanoTime() - begin);
+            }
+        };
+    }
+
+    /**
+     * Runs a batch simulation of random requests and prints its report.
+     * Arguments, all optional: robots, obstacles, requests, ticks between requests, maximum ticks, seed and dispatch mode.
+     *
+     * @param args robots, obstacles, requests, request interval, maximum ticks, seed and dispatch mode
+     * @throws NumberFormatException    if one of the first six arguments is not a number
+     * @throws IllegalArgumentException if the dispatch mode is not GREEDY or BATCH
+     */
+    public static void main(String[] args) {
+        int[] settings = {10, 20, 100, 10, 100_000, 0};
+        for (int i = 0; i < Math.min(args.length, settings.length); i++)
+            settings[i] = Integer.parseInt(args[i]);
+        DispatchMode dispatch = args.length > settings.length ? DispatchMode.valueOf(args[settings.length].toUpperCase(Locale.ROOT)) : DispatchMode.GREEDY;
+        BatchConfig config = new BatchConfig.Builder().robots(settings[0]).obstacles(settings[1]).randomRequests(settings[2], settings[3]).maxTicks(settings[4]).seed(settings[5]).dispatch(dispatch).build();
+        System.out.println(new BatchSimulation(config).run());
+    }
+}
@@ -59,4 +59,29 @@ public class Circle extends Shape {
     public boolean isIntercepted(LineSegment segment) {
         return segment.shortestDistance(points[0]) <= r;
     }
+
+    /**
+     * Calculates the length of the chord the given segment cuts through the circle.
+     *
+     * @param segment Segment
+     * @return Length of the part of the segment inside the circle
+     * @pre segment != null
+     */
+    @Override
+    public double penetration(LineSegment segment) {
+        double dx = segment.p2().x() - segment.p1().x();
+        double dy = segment.p2().y() - segment.p1().y();
+        double fx = segment.p1().x() - points[0].x();
+        double fy = segment.p1().y() - points[0].y();
+        double a = dx * dx + dy * dy;
+        double b = 2 * (fx * dx + fy * dy);
+        double c = fx * fx + fy * fy - r * r;
+        double discriminant = b * b - 4 * a * c;
+        if (a == 0 || discriminant <= 0) return 0;
+        // The segment is inside the circle between the two roots, clamped to the segment itself
+        double root = Math.sqrt(discriminant);
+        double t0 = Math.max((-b - root) / (2 * a), 0);
+        double t1 = Math.min((-b + root) / (2 * a), 1);
+        return t1 > t0 ? (t1 - t0) * Math.sqrt(a) : 0;
+    }
 }
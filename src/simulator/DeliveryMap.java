@@ -1,32 +1,153 @@
 package simulator;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The DeliveryMap class represents a map that contains obstacles that robots must navigate around in order to deliver packages.
  * It keeps track of all the obstacles on the map and provides methods to add or remove them. It also provides a method to check
  * whether a given delivery point is valid or not based on whether it is within an obstacle or outside the delivery area.
+ * Every robot on the map shares its trajectory cache, which is cleared whenever an obstacle is added.
+ * The obstacles are also indexed by an ObstacleGrid, rebuilt whenever an obstacle is added, so point and segment
+ * queries only test the obstacles near them, and rasterized into an OccupancyRaster, so checking whether a point is
+ * inside an obstacle is a single bit test.
+ * Every version of the grid remembers the collisions of the segments it tests in a SegmentCollisionMemo shared by the
+ * whole map, and adding an obstacle starts a new version of the map, so the collisions remembered before are not used.
+ * Coarse distance fields to the charging stations, with cells of 4 by 4 pixels so each one takes 16 times less memory
+ * and time than a field of pixels, are flooded the first time each station needs one, and dropped whenever an
+ * obstacle is added.
+ * The visibility graph of the obstacles is built the first time it is needed, and again after an obstacle is added.
  *
  * @author Jude Adam
  * @version 1.0.0 20/04/2023
  * @inv obstacles != null
+ * @inv trajectoryCache != null &amp;&amp; segmentMemo != null
+ * @inv obstacleGrid != null &amp;&amp; occupancy != null
  */
-public record DeliveryMap(List<Shape> obstacles) {
+public class DeliveryMap {
 
     private static final int MIN_BOUND = 50;
     private static final int MAX_BOUND = 950;
+    private static final int TRAJECTORY_CACHE_CAPACITY = 50000;
+    private static final int SEGMENT_MEMO_CAPACITY = 1 << 16;
+    private static final int STATION_FIELD_CELL = 4;
+
+    private final List<Shape> obstacles;
+    private final TrajectoryCache trajectoryCache;
+    private final SegmentCollisionMemo segmentMemo;
+    private volatile long version;
+    private volatile ObstacleGrid obstacleGrid;
+    private volatile OccupancyRaster occupancy;
+    private volatile VisibilityGraph visibilityGraph;
+    private volatile Map<Point, DistanceField> chargingStationFields;
 
     /**
      * Constructs a new DeliveryMap with the given list of obstacles.
      *
      * @param obstacles The initial list of obstacles on the map.
      * @pre obstacles != null
-     * @post A new DeliveryMap instance is created with the specified obstacles list.
+     * @post A new DeliveryMap instance is created with the specified obstacles list, its grid, its raster and an empty trajectory cache.
      */
-    public DeliveryMap {
+    public DeliveryMap(List<Shape> obstacles) {
         if (obstacles == null) {
             throw new IllegalArgumentException("Obstacles list cannot be null");
         }
+        this.obstacles = obstacles;
+        this.trajectoryCache = new TrajectoryCache(TRAJECTORY_CACHE_CAPACITY);
+        this.segmentMemo = new SegmentCollisionMemo(SEGMENT_MEMO_CAPACITY);
+        this.obstacleGrid = new ObstacleGrid(obstacles, segmentMemo, version);
+        this.occupancy = new OccupancyRaster(obstacles);
+        this.chargingStationFields = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the obstacles on the map.
+     *
+     * @return The list of obstacles on the map.
+     */
+    public List<Shape> obstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Returns the obstacles on the map indexed by a uniform grid, this is what planners should collide trajectories against.
+     *
+     * @return The grid of the obstacles on the map.
+     */
+    public ObstacleGrid obstacleGrid() {
+        return obstacleGrid;
+    }
+
+    /**
+     * Returns the occupancy raster of the obstacles on the map.
+     *
+     * @return The occupancy raster of the map.
+     */
+    public OccupancyRaster occupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Returns the visibility graph of the obstacles on the map, building it if it was not built yet.
+     *
+     * @return The visibility graph of the map.
+     */
+    public VisibilityGraph visibilityGraph() {
+        VisibilityGraph graph = visibilityGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = visibilityGraph;
+                if (graph == null)
+                    visibilityGraph = graph = new VisibilityGraph(obstacleGrid, occupancy);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the coarse distance field to a charging station, flooding it over the occupancy raster if it was not
+     * built yet.
+     *
+     * @param station The charging station the distances are measured to.
+     * @return The distance field to the station.
+     * @pre station != null
+     */
+    public DistanceField chargingStationField(Point station) {
+        if (station == null) {
+            throw new IllegalArgumentException("Station cannot be null");
+        }
+        // The fields are read before the raster, since addObstacle replaces them after it
+        Map<Point, DistanceField> fields = chargingStationFields;
+        OccupancyRaster raster = occupancy;
+        return fields.computeIfAbsent(station, s -> new DistanceField(raster, s, STATION_FIELD_CELL));
+    }
+
+    /**
+     * Returns the trajectory cache shared by every robot on the map.
+     *
+     * @return The trajectory cache of the map.
+     */
+    public TrajectoryCache trajectoryCache() {
+        return trajectoryCache;
+    }
+
+    /**
+     * Returns the segment collision memo shared by every grid of the map.
+     *
+     * @return The segment collision memo of the map.
+     */
+    public SegmentCollisionMemo segmentCollisionMemo() {
+        return segmentMemo;
+    }
+
+    /**
+     * Returns the version of the map, which starts at 0 and is incremented whenever an obstacle is added.
+     *
+     * @return The version of the map.
+     */
+    public long version() {
+        return version;
     }
 
     /**
@@ -34,13 +155,19 @@ public record DeliveryMap(List<Shape> obstacles) {
      *
      * @param obstacle The obstacle to add to the map.
      * @pre obstacle != null
-     * @post The obstacle is added to the list of obstacles.
+     * @post The obstacle is added to the list of obstacles, the version is incremented, the grid and raster are rebuilt, the visibility graph and charging station fields are dropped and the trajectory cache is cleared.
      */
-    public void addObstacle(Shape obstacle) {
+    public synchronized void addObstacle(Shape obstacle) {
         if (obstacle == null) {
             throw new IllegalArgumentException("Obstacle cannot be null");
         }
         this.obstacles.add(obstacle);
+        this.version++;
+        this.obstacleGrid = new ObstacleGrid(obstacles, segmentMemo, version);
+        this.occupancy = new OccupancyRaster(obstacles);
+        this.visibilityGraph = null;
+        this.chargingStationFields = new ConcurrentHashMap<>();
+        this.trajectoryCache.clear();
     }
 
 
@@ -59,10 +186,7 @@ public record DeliveryMap(List<Shape> obstacles) {
         // In any of the corners
         if (pointOutOfBounds(request.start()) || pointOutOfBounds(request.end()))
             return false;
-        for (Shape obstacle : obstacles)
-            if (obstacle.surrounds(request.start()) || obstacle.surrounds(request.end()))
-                return false;
-        return true;
+        return !occupancy.isOccupied(request.start()) && !occupancy.isOccupied(request.end());
     }
 
     private boolean pointOutOfBounds(Point p) {
@@ -0,0 +1,9 @@
+package simulator;
+
+/**
+ * Represents the ways a RobotManager hands requests to the waiting robots.
+ * GREEDY offers the request at the head of the queue to the waiting robots, nearest first, one request per update.
+ * BATCH takes a window of waiting requests and every waiting robot, and assigns them all at once so that the total
+ * distance travelled to reach the requests is the least possible.
+ */
+public enum DispatchMode {GREEDY, BATCH}
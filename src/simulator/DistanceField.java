@@ -0,0 +1,219 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Class DistanceField, the length of the shortest path from every pixel of the map to a target, going around the
+ * obstacles of an OccupancyRaster.
+ * Paths move between neighbouring cells, diagonals included, with steps of one and sqrt(2) cells, the same moves a
+ * robot makes when cells are pixels, and the field is flooded from the target once with Dijkstra's algorithm, so every
+ * later query is a single array lookup.
+ * A coarse field has cells of several pixels, a cell being blocked if any of its pixels is occupied, which takes less
+ * memory and time to flood at the cost of distances that are a little longer, and of gaps narrower than a few cells
+ * being closed.
+ *
+ * @inv distances.length == width * width &amp;&amp; width * cell &ge; SIZE
+ */
+public class DistanceField {
+
+    private static final int SIZE = OccupancyRaster.SIZE;
+    private static final float DIAGONAL = (float) Math.sqrt(2);
+    // Most a path of pixel moves can be longer than the straight line it follows, reached at 22.5 degrees
+    private static final double STRETCH = Math.sqrt(4 - 2 * Math.sqrt(2));
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final Point target;
+    private final int cell;
+    private final int width;
+    private final float[] distances;
+
+    /**
+     * Constructor for DistanceField class, floods the field from the target, one cell per pixel.
+     *
+     * @param occupancy pixels that paths cannot go through
+     * @param target    point every distance is measured to, it is reached even if it is occupied
+     * @pre occupancy != null &amp;&amp; target != null
+     * @post distance(p) is the length of the shortest path from p to target, or infinity if there is none
+     * @throws IllegalArgumentException if occupancy or target is null
+     */
+    public DistanceField(OccupancyRaster occupancy, Point target) {
+        this(occupancy, target, 1);
+    }
+
+    /**
+     * Constructor for DistanceField class, floods the field from the target over cells of cell by cell pixels.
+     *
+     * @param occupancy pixels that paths cannot go through
+     * @param target    point every distance is measured to, it is reached even if it is occupied
+     * @param cell      side of a cell, in pixels
+     * @pre occupancy != null &amp;&amp; target != null &amp;&amp; cell > 0
+     * @post distance(p) is the length of the shortest path from p to target over the cells, or infinity if there is none
+     * @throws IllegalArgumentException if occupancy or target is null, or cell is not positive
+     */
+    public DistanceField(OccupancyRaster occupancy, Point target, int cell) {
+        if (occupancy == null || target == null) throw new IllegalArgumentException("Occupancy and target cannot be null");
+        if (cell <= 0) throw new IllegalArgumentException("Cell must be positive");
+        this.target = target;
+        this.cell = cell;
+        this.width = (SIZE + cell - 1) / cell;
+        this.distances = new float[width * width];
+        Arrays.fill(distances, Float.POSITIVE_INFINITY);
+        flood(blockedCells(occupancy), (target.y() / cell) * width + target.x() / cell);
+    }
+
+    /**
+     * Finds the cells with at least one occupied pixel.
+     *
+     * @param occupancy pixels that paths cannot go through
+     * @return whether each cell is blocked, row by row
+     */
+    private boolean[] blockedCells(OccupancyRaster occupancy) {
+        boolean[] blocked = new boolean[width * width];
+        for (int y = 0; y < SIZE; y++)
+            for (int x = 0; x < SIZE; x++)
+                if (occupancy.isOccupied(x, y))
+                    blocked[(y / cell) * width + x / cell] = true;
+        return blocked;
+    }
+
+    /**
+     * Dijkstra's algorithm over the free cells, with an indexed binary heap so each cell is in the heap at most once.
+     *
+     * @param blocked cells that paths cannot go through
+     * @param source  index of the target cell
+     */
+    private void flood(boolean[] blocked, int source) {
+        int[] heap = new int[width * width];
+        // position of each cell in the heap, -1 before it is reached and -2 once its distance is final
+        int[] position = new int[width * width];
+        Arrays.fill(position, -1);
+        int size = 0;
+        distances[source] = 0;
+        heap[size] = source;
+        position[source] = size++;
+        while (size > 0) {
+            int index = heap[0];
+            position[index] = -2;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                siftDown(heap, position, size, 0);
+            }
+            int x = index % width, y = index / width;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= width || blocked[ny * width + nx])
+                    continue;
+                int next = ny * width + nx;
+                if (position[next] == -2)
+                    continue;
+                float distance = distances[index] + (d < 4 ? cell : cell * DIAGONAL);
+                if (distance >= distances[next])
+                    continue;
+                distances[next] = distance;
+                if (position[next] == -1) {
+                    heap[size] = next;
+                    position[next] = size++;
+                }
+                siftUp(heap, position, position[next]);
+            }
+        }
+    }
+
+    /**
+     * Moves a cell up the heap after its distance decreased.
+     *
+     * @param heap     heap of cells, closest to the target first
+     * @param position position of each cell in the heap
+     * @param i        position of the cell
+     */
+    private void siftUp(int[] heap, int[] position, int i) {
+        int index = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[heap[parent]] <= distances[index])
+                break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+
+    /**
+     * Moves a cell down the heap after it replaced the head.
+     *
+     * @param heap     heap of cells, closest to the target first
+     * @param position position of each cell in the heap
+     * @param size     number of cells in the heap
+     * @param i        position of the cell
+     */
+    private void siftDown(int[] heap, int[] position, int size, int i) {
+        int index = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && distances[heap[child + 1]] < distances[heap[child]])
+                child++;
+            if (distances[heap[child]] >= distances[index])
+                break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+
+    /**
+     * @return the point every distance is measured to
+     */
+    public Point target() {
+        return target;
+    }
+
+    /**
+     * @return side of a cell of the field, in pixels
+     */
+    public int cell() {
+        return cell;
+    }
+
+    /**
+     * Gets the length of the shortest path from a point to the target.
+     * On a coarse field, the distance of the cell of the point is lengthened by a cell diagonal, the most the point can
+     * be from the paths of its cell, and a point in a blocked cell is reached through the free cells around it.
+     *
+     * @param p point
+     * @return length of the shortest path around the obstacles, or infinity if the point is occupied or cut off from the target
+     * @pre p != null &amp;&amp; p is within the map
+     */
+    public double distance(Point p) {
+        int x = p.x() / cell, y = p.y() / cell;
+        double distance = distances[y * width + x];
+        if (cell == 1)
+            return distance;
+        if (Double.isInfinite(distance)) {
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (nx >= 0 && nx < width && ny >= 0 && ny < width)
+                    distance = Math.min(distance, distances[ny * width + nx] + (d < 4 ? cell : cell * DIAGONAL));
+            }
+        }
+        return distance + cell * DIAGONAL;
+    }
+
+    /**
+     * Estimates the length of the shortest path from a point to the target when the path may go at any angle, as
+     * trajectories do, by shrinking distance(p) by the most that pixel moves stretch a straight line.
+     *
+     * @param p point
+     * @return estimated length of the shortest path at any angle, or infinity if there is no path
+     * @pre p != null &amp;&amp; p is within the map
+     */
+    public double anyAngleDistance(Point p) {
+        return distance(p) / STRETCH;
+    }
+}
@@ -0,0 +1,8 @@
+package simulator;
+
+/**
+ * Represents the ways the genetic algorithm can score a trajectory.
+ * FEASIBILITY scores every trajectory with collisions as 0, PENETRATION scores them by how deep they go into the
+ * obstacles they hit, so the planner can tell which of them is closer to being free of collisions.
+ */
+public enum FitnessMode {FEASIBILITY, PENETRATION}
@@ -0,0 +1,144 @@
+package simulator;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class GeneticPathPlanner, plans each trajectory by evolving a population of random trajectories with a Planner.
+ * The planner stops at the first trajectory with no collisions, or after the Planner's generation limit, so the same
+ * random number generator always gives the same trajectory, whatever the load of the machine.
+ * A wall-clock budget can be given explicitly to also stop the search when it is spent, at the cost of plans that
+ * depend on how busy the machine is.
+ *
+ * @inv deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; pool != null
+ * @inv pm &ge; 0 &amp;&amp; pa &ge; 0 &amp;&amp; pr &ge; 0
+ */
+public class GeneticPathPlanner implements PathPlanner {
+
+    static final double DEFAULT_PM = 0.5;
+    static final double DEFAULT_PA = 0.3;
+    static final double DEFAULT_PR = 0.2;
+
+    private final DeliveryMap deliveryMap;
+    private final PointGenerator generator;
+    private final Random rng;
+    private final Duration budget;
+    private final ForkJoinPool pool;
+    private final double pm;
+    private final double pa;
+    private final double pr;
+
+    /**
+     * Constructor for GeneticPathPlanner class with no time budget, on the common pool, with mutation, point addition
+     * and point removal probabilities of 0.5, 0.3 and 0.2.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator of the initial populations and mutations
+     * @param rng         random number generator of the planner
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public GeneticPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng) {
+        this(deliveryMap, generator, rng, ForkJoinPool.commonPool(), DEFAULT_PM, DEFAULT_PA, DEFAULT_PR);
+    }
+
+    /**
+     * Constructor for GeneticPathPlanner class with a time budget, with mutation, point addition and point removal
+     * probabilities of 0.5, 0.3 and 0.2.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator of the initial populations and mutations
+     * @param rng         random number generator of the planner
+     * @param budget      maximum time spent planning a trajectory
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; budget != null
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public GeneticPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng, Duration budget) {
+        this(deliveryMap, generator, rng, budget, DEFAULT_PM, DEFAULT_PA, DEFAULT_PR);
+    }
+
+    /**
+     * Constructor for GeneticPathPlanner class with the given mutation, point addition and point removal probabilities.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator of the initial populations and mutations
+     * @param rng         random number generator of the planner
+     * @param budget      maximum time spent planning a trajectory
+     * @param pm          mutation probability
+     * @param pa          point addition probability
+     * @param pr          point removal probability
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; budget != null
+     * @pre pm &ge; 0 &amp;&amp; pa &ge; 0 &amp;&amp; pr &ge; 0
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public GeneticPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng, Duration budget, double pm, double pa, double pr) {
+        this(deliveryMap, generator, rng, budget, ForkJoinPool.commonPool(), pm, pa, pr);
+        if (budget == null)
+            throw new IllegalArgumentException("Can't be constructed with null arguments");
+    }
+
+    /**
+     * Constructor for GeneticPathPlanner class with no time budget, each trajectory is searched for at most the Planner's
+     * generation limit, so plans only depend on the random number generator.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator of the initial populations and mutations
+     * @param rng         random number generator of the planner
+     * @param pool        fork-join pool where the offspring of each generation are built
+     * @param pm          mutation probability
+     * @param pa          point addition probability
+     * @param pr          point removal probability
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; pool != null
+     * @pre pm &ge; 0 &amp;&amp; pa &ge; 0 &amp;&amp; pr &ge; 0
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public GeneticPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng, ForkJoinPool pool, double pm, double pa, double pr) {
+        this(deliveryMap, generator, rng, null, pool, pm, pa, pr);
+    }
+
+    /**
+     * Constructor for GeneticPathPlanner class with the given time budget and pool.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator of the initial populations and mutations
+     * @param rng         random number generator of the planner
+     * @param budget      maximum time spent planning a trajectory, null to stop at the generation limit only
+     * @param pool        fork-join pool where trajectories are planned
+     * @param pm          mutation probability
+     * @param pa          point addition probability
+     * @param pr          point removal probability
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; pool != null
+     * @pre pm &ge; 0 &amp;&amp; pa &ge; 0 &amp;&amp; pr &ge; 0
+     * @throws IllegalArgumentException if any argument but budget is null
+     */
+    public GeneticPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng, Duration budget, ForkJoinPool pool, double pm, double pa, double pr) {
+        if (deliveryMap == null || generator == null || rng == null || pool == null)
+            throw new IllegalArgumentException("Can't be constructed with null arguments");
+        this.deliveryMap = deliveryMap;
+        this.generator = generator.within(deliveryMap);
+        this.rng = rng;
+        this.budget = budget;
+        this.pool = pool;
+        this.pm = pm;
+        this.pa = pa;
+        this.pr = pr;
+    }
+
+    /**
+     * Plans a trajectory with a genetic algorithm, starting from 200 random trajectories of 0 or 1 intermediate points.
+     * Colliding segments are also bent around the obstacles they hit, which finds most trajectories in a few generations.
+     * Every intermediate point is drawn in the free space of the map.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return a trajectory from start to end with no collisions, or null if none was found within the budget or the generation limit
+     * @pre start != null &amp;&amp; end != null
+     */
+    @Override
+    public Trajectory plan(Point start, Point end) {
+        int[] lengths = rng.ints(200, 0, 2).toArray();
+        Planner planner = new Planner.Builder().pm(pm).pa(pa).pr(pr).pb(0.5).start(start).end(end).lengths(lengths).generator(generator).obstacles(deliveryMap.obstacleGrid()).rng(rng).pool(pool).stallGenerations(0).build();
+        return budget == null ? planner.findTrajectory() : planner.findTrajectoryAsync(budget).join();
+    }
+}
@@ -0,0 +1,273 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Class GridPathPlanner, a deterministic planner that searches the pixels robots move through, using A* over the
+ * 8-connected pixel lattice accelerated by Jump Point Search.
+ * The pixels searched are those of the occupancy raster with the outlines of polygons added and every obstacle grown
+ * by one pixel, and diagonal moves can't cut the corner of an obstacle, so the straight and diagonal segments between
+ * the turning points of a trajectory stay clear of every obstacle.
+ * Around the start and end the obstacles are not grown, so points right next to an obstacle can still be left and
+ * reached.
+ *
+ * @inv deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null
+ */
+public class GridPathPlanner implements PathPlanner {
+
+    private static final int CLEARANCE = 1;
+    private static final int SIZE = OccupancyRaster.SIZE;
+    private static final double DIAGONAL = Math.sqrt(2);
+
+    private final DeliveryMap deliveryMap;
+    private final PointGenerator generator;
+    private final Random rng;
+    private volatile Inflated inflated;
+
+    /**
+     * Occupancy raster of the map, the same raster with outlines added, and that one with obstacles grown by CLEARANCE
+     * pixels.
+     */
+    private record Inflated(OccupancyRaster source, OccupancyRaster outlined, OccupancyRaster raster) {
+    }
+
+    /**
+     * Constructor for GridPathPlanner class.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator given to the planned trajectories
+     * @param rng         random number generator given to the planned trajectories
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public GridPathPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng) {
+        if (deliveryMap == null || generator == null || rng == null)
+            throw new IllegalArgumentException("Can't be constructed with null arguments");
+        this.deliveryMap = deliveryMap;
+        this.generator = generator;
+        this.rng = rng;
+    }
+
+    /**
+     * Plans the shortest 8-connected pixel path between two points, the grown obstacles of the map being
+     * impassable except within CLEARANCE pixels of the start and end, where only the obstacles themselves are.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return a trajectory through the turning points of the path, or null if start or end are inside an obstacle or
+     * end can't be reached from start
+     * @pre start != null &amp;&amp; end != null
+     */
+    @Override
+    public Trajectory plan(Point start, Point end) {
+        ObstacleGrid obstacles = deliveryMap.obstacleGrid();
+        OccupancyRaster source = deliveryMap.occupancy();
+        if (source.isOccupied(start) || source.isOccupied(end))
+            return null;
+        Inflated cached = inflated;
+        if (cached == null || cached.source() != source) {
+            OccupancyRaster outlined = source.withOutlines(obstacles);
+            inflated = cached = new Inflated(source, outlined, outlined.inflate(CLEARANCE));
+        }
+        List<Point> path = new Search(cached.raster(), cached.outlined(), start, end).run();
+        if (path == null)
+            return null;
+        return new Trajectory(new ArrayList<>(path), generator, obstacles, rng);
+    }
+
+    /**
+     * Node of the search, reached from its parent along a single straight or diagonal direction.
+     */
+    private static final class Node {
+        private final int x;
+        private final int y;
+        private double g = Double.MAX_VALUE;
+        private Node parent;
+        private boolean closed;
+
+        private Node(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * State of a single search, so the planner can be used by several threads at once.
+     */
+    private static final class Search {
+        private final OccupancyRaster raster;
+        private final OccupancyRaster outlined;
+        private final int sx;
+        private final int sy;
+        private final int ex;
+        private final int ey;
+        private final Map<Integer, Node> nodes = new HashMap<>();
+        // Entries are {f, x, y}, stale entries are skipped when polled
+        private final PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+
+        private Search(OccupancyRaster raster, OccupancyRaster outlined, Point start, Point end) {
+            this.raster = raster;
+            this.outlined = outlined;
+            this.sx = start.x();
+            this.sy = start.y();
+            this.ex = end.x();
+            this.ey = end.y();
+        }
+
+        private boolean walkable(int x, int y) {
+            if (x < 0 || y < 0 || x >= SIZE || y >= SIZE)
+                return false;
+            if (!raster.isOccupied(x, y) || (x == sx && y == sy) || (x == ex && y == ey))
+                return true;
+            return !outlined.isOccupied(x, y) && (near(x, y, sx, sy) || near(x, y, ex, ey));
+        }
+
+        /**
+         * @return true if the pixels are at most CLEARANCE pixels apart along each axis
+         */
+        private static boolean near(int x0, int y0, int x1, int y1) {
+            return Math.abs(x1 - x0) <= CLEARANCE && Math.abs(y1 - y0) <= CLEARANCE;
+        }
+
+        /**
+         * Octile distance, the length of the shortest 8-connected path between two pixels with no obstacles.
+         */
+        private static double octile(int x0, int y0, int x1, int y1) {
+            int dx = Math.abs(x1 - x0), dy = Math.abs(y1 - y0);
+            return Math.max(dx, dy) + (DIAGONAL - 1) * Math.min(dx, dy);
+        }
+
+        private Node node(int x, int y) {
+            return nodes.computeIfAbsent(y * SIZE + x, i -> new Node(x, y));
+        }
+
+        private List<Point> run() {
+            Node first = node(sx, sy);
+            first.g = 0;
+            open.add(new double[]{octile(sx, sy, ex, ey), sx, sy});
+            while (!open.isEmpty()) {
+                double[] entry = open.poll();
+                Node current = node((int) entry[1], (int) entry[2]);
+                if (current.closed)
+                    continue;
+                current.closed = true;
+                if (current.x == ex && current.y == ey)
+                    return path(current);
+                for (int[] direction : directions(current)) {
+                    int jumpPoint = jump(current.x, current.y, direction[0], direction[1]);
+                    if (jumpPoint < 0)
+                        continue;
+                    Node next = node(jumpPoint % SIZE, jumpPoint / SIZE);
+                    if (next.closed)
+                        continue;
+                    // Jump points are reached along a single direction, so the octile distance is the real distance
+                    double g = current.g + octile(current.x, current.y, next.x, next.y);
+                    if (g < next.g) {
+                        next.g = g;
+                        next.parent = current;
+                        open.add(new double[]{g + octile(next.x, next.y, ex, ey), next.x, next.y});
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Directions worth searching from a node, the natural and forced neighbours of the direction it was reached
+         * from, or every direction for the start node.
+         */
+        private List<int[]> directions(Node node) {
+            List<int[]> result = new ArrayList<>(8);
+            if (node.parent == null) {
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++)
+                        if (dx != 0 || dy != 0)
+                            result.add(new int[]{dx, dy});
+                return result;
+            }
+            int dx = Integer.signum(node.x - node.parent.x), dy = Integer.signum(node.y - node.parent.y);
+            int x = node.x, y = node.y;
+            if (dx != 0 && dy != 0) {
+                result.add(new int[]{0, dy});
+                result.add(new int[]{dx, 0});
+                result.add(new int[]{dx, dy});
+            } else if (dx != 0) {
+                result.add(new int[]{dx, 0});
+                if (walkable(x, y + 1)) {
+                    result.add(new int[]{0, 1});
+                    result.add(new int[]{dx, 1});
+                }
+                if (walkable(x, y - 1)) {
+                    result.add(new int[]{0, -1});
+                    result.add(new int[]{dx, -1});
+                }
+            } else {
+                result.add(new int[]{0, dy});
+                if (walkable(x + 1, y)) {
+                    result.add(new int[]{1, 0});
+                    result.add(new int[]{1, dy});
+                }
+                if (walkable(x - 1, y)) {
+                    result.add(new int[]{-1, 0});
+                    result.add(new int[]{-1, dy});
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Moves from a pixel in the given direction until reaching the end, a pixel with a forced neighbour or, when
+         * moving diagonally, a pixel from which a straight move finds a jump point.
+         * A diagonal move is only allowed when both pixels it passes between are walkable.
+         *
+         * @return index of the jump point, y * SIZE + x, or -1 if the move runs into an obstacle or off the map
+         */
+        private int jump(int x, int y, int dx, int dy) {
+            while (true) {
+                if (dx != 0 && dy != 0 && !(walkable(x + dx, y) && walkable(x, y + dy)))
+                    return -1;
+                x += dx;
+                y += dy;
+                if (!walkable(x, y))
+                    return -1;
+                if (x == ex && y == ey)
+                    return y * SIZE + x;
+                if (dx != 0 && dy != 0) {
+                    if (jump(x, y, dx, 0) >= 0 || jump(x, y, 0, dy) >= 0)
+                        return y * SIZE + x;
+                } else if (dx != 0) {
+                    if ((walkable(x, y - 1) && !walkable(x - dx, y - 1)) || (walkable(x, y + 1) && !walkable(x - dx, y + 1)))
+                        return y * SIZE + x;
+                } else {
+                    if ((walkable(x - 1, y) && !walkable(x - 1, y - dy)) || (walkable(x + 1, y) && !walkable(x + 1, y - dy)))
+                        return y * SIZE + x;
+                }
+            }
+        }
+
+        /**
+         * Builds the turning points of the path to a node, leaving out jump points where the direction doesn't change.
+         */
+        private List<Point> path(Node last) {
+            List<Point> path = new ArrayList<>();
+            for (Node node = last; node != null; node = node.parent) {
+                int size = path.size();
+                if (size >= 2) {
+                    Point a = path.get(size - 2), b = path.get(size - 1);
+                    if (Integer.signum(a.x() - b.x()) == Integer.signum(b.x() - node.x)
+                            && Integer.signum(a.y() - b.y()) == Integer.signum(b.y() - node.y))
+                        path.remove(size - 1);
+                }
+                path.add(new Point(node.x, node.y));
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Class HungarianAssignment, solves the assignment problem: given the cost of pairing every row with every column,
+ * pairs rows with distinct columns so that as many rows as possible are paired, and the total cost of the pairs is the
+ * least among those pairings.
+ * Infinite costs mark pairs that cannot be made. They are replaced by a cost higher than any pairing of finite costs,
+ * so the Hungarian algorithm, with row and column potentials, only uses them when it cannot do otherwise, and those
+ * pairs are dropped from the result. It runs in O(n^2 m) time for n rows and m columns, n &le; m, the matrix being
+ * transposed otherwise.
+ */
+public final class HungarianAssignment {
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Solves the assignment problem.
+     *
+     * @param cost cost of pairing each row with each column, Double.POSITIVE_INFINITY if they cannot be paired
+     * @return the column paired with each row, -1 for the rows left alone
+     * @throws IllegalArgumentException if cost is null, its rows have different lengths, or a cost is NaN or -infinity
+     * @pre cost != null &amp;&amp; every row of cost has the same length
+     * @post every column appears at most once in the result, and only for pairs of finite cost
+     */
+    public static int[] solve(double[][] cost) {
+        if (cost == null) throw new IllegalArgumentException("Cost cannot be null");
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        double largest = 0;
+        for (double[] row : cost) {
+            if (row == null || row.length != columns) throw new IllegalArgumentException("Every row must have the same length");
+            for (double c : row) {
+                if (Double.isNaN(c) || c == Double.NEGATIVE_INFINITY) throw new IllegalArgumentException("Costs must be numbers or +infinity");
+                if (c != Double.POSITIVE_INFINITY) largest = Math.max(largest, Math.abs(c));
+            }
+        }
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (rows == 0 || columns == 0)
+            return result;
+        // Any pairing with one more finite pair costs less than any pairing with one less
+        double forbidden = (largest + 1) * 2 * (Math.min(rows, columns) + 1);
+        boolean transposed = rows > columns;
+        int n = transposed ? columns : rows;
+        int m = transposed ? rows : columns;
+        double[][] a = new double[n][m];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < m; j++) {
+                double c = transposed ? cost[j][i] : cost[i][j];
+                a[i][j] = c == Double.POSITIVE_INFINITY ? forbidden : c;
+            }
+
+        int[] match = minimumCostMatching(a, n, m);
+        for (int j = 0; j < m; j++) {
+            int i = match[j];
+            if (i < 0) continue;
+            int row = transposed ? j : i;
+            int column = transposed ? i : j;
+            if (cost[row][column] != Double.POSITIVE_INFINITY)
+                result[row] = column;
+        }
+        return result;
+    }
+
+    /**
+     * Pairs every row with a distinct column at the least total cost, with the Hungarian algorithm. Columns are
+     * numbered from 1 inside, column 0 being where the row being added starts its augmenting path.
+     *
+     * @param a cost of each pair
+     * @param n number of rows
+     * @param m number of columns
+     * @return the row paired with each column, -1 for the columns left alone
+     * @pre n &le; m
+     */
+    private static int[] minimumCostMatching(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double reduced = a[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (reduced < minv[j]) {
+                        minv[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            // Flip the augmenting path back to column 0
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        int[] match = new int[m];
+        for (int j = 1; j <= m; j++)
+            match[j - 1] = p[j] - 1;
+        return match;
+    }
+}
@@ -0,0 +1,251 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class IntPointList, a growable list of points packed into ints, with no boxing and no Point objects.
+ * Coordinates of a point are in 0..999, so a point packs losslessly into a single int as x &lt;&lt; 10 | y.
+ *
+ * @inv 0 &le; size &le; data.length
+ */
+public class IntPointList {
+
+    private static final int COORDINATE_BITS = 10;
+    private static final int COORDINATE_MASK = (1 << COORDINATE_BITS) - 1;
+
+    private int[] data;
+    private int size;
+
+    /**
+     * Constructor for an empty IntPointList.
+     */
+    public IntPointList() {
+        this(8);
+    }
+
+    /**
+     * Constructor for an empty IntPointList.
+     *
+     * @param capacity number of points it can hold before growing
+     * @pre capacity &ge; 0
+     */
+    public IntPointList(int capacity) {
+        this.data = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Creates a list with the given points.
+     *
+     * @param points points
+     * @return packed list with the same points in the same order
+     * @pre points != null
+     */
+    public static IntPointList of(List<Point> points) {
+        IntPointList result = new IntPointList(points.size());
+        for (Point p : points)
+            result.add(pack(p));
+        return result;
+    }
+
+    /**
+     * Packs coordinates into an int.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return packed point
+     * @pre 0 &le; x &le; 999 &amp;&amp; 0 &le; y &le; 999
+     */
+    public static int pack(int x, int y) {
+        return x << COORDINATE_BITS | y;
+    }
+
+    /**
+     * @param p point
+     * @return packed point
+     * @pre p != null
+     */
+    public static int pack(Point p) {
+        return pack(p.x(), p.y());
+    }
+
+    /**
+     * @param packed packed point
+     * @return x coordinate of the point
+     */
+    public static int x(int packed) {
+        return packed >>> COORDINATE_BITS;
+    }
+
+    /**
+     * @param packed packed point
+     * @return y coordinate of the point
+     */
+    public static int y(int packed) {
+        return packed & COORDINATE_MASK;
+    }
+
+    /**
+     * @param packed packed point
+     * @return the point
+     */
+    public static Point unpack(int packed) {
+        return new Point(x(packed), y(packed));
+    }
+
+    /**
+     * @param a packed point
+     * @param b packed point
+     * @return Euclidean distance between a and b, the same as Point.dist
+     */
+    public static double dist(int a, int b) {
+        double dx = x(a) - x(b);
+        double dy = y(a) - y(b);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity > data.length)
+            data = Arrays.copyOf(data, Math.max(minCapacity, data.length * 2));
+    }
+
+    /**
+     * Appends a point.
+     *
+     * @param packed packed point
+     */
+    public void add(int packed) {
+        grow(size + 1);
+        data[size++] = packed;
+    }
+
+    /**
+     * Inserts a point, shifting the following points.
+     *
+     * @param index  index of the new point
+     * @param packed packed point
+     * @throws IndexOutOfBoundsException if index is not in 0..size()
+     */
+    public void add(int index, int packed) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException(index);
+        grow(size + 1);
+        System.arraycopy(data, index, data, index + 1, size - index);
+        data[index] = packed;
+        size++;
+    }
+
+    /**
+     * Appends every point of another list, from a given index.
+     *
+     * @param other list of points
+     * @param from  index of the first point of other to append
+     * @param to    index after the last point of other to append
+     */
+    public void addAll(IntPointList other, int from, int to) {
+        if (from < 0 || to > other.size || from > to) throw new IndexOutOfBoundsException(from);
+        grow(size + to - from);
+        System.arraycopy(other.data, from, data, size, to - from);
+        size += to - from;
+    }
+
+    /**
+     * @param index index of the point
+     * @return packed point at index
+     * @throws IndexOutOfBoundsException if index is not in 0..size()-1
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return data[index];
+    }
+
+    /**
+     * Replaces a point.
+     *
+     * @param index  index of the point
+     * @param packed new packed point
+     * @return the packed point that was replaced
+     * @throws IndexOutOfBoundsException if index is not in 0..size()-1
+     */
+    public int set(int index, int packed) {
+        int old = get(index);
+        data[index] = packed;
+        return old;
+    }
+
+    /**
+     * Removes a point, shifting the following points.
+     *
+     * @param index index of the point
+     * @return the packed point that was removed
+     * @throws IndexOutOfBoundsException if index is not in 0..size()-1
+     */
+    public int removeAt(int index) {
+        int old = get(index);
+        System.arraycopy(data, index + 1, data, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * Reverses the order of the points.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int t = data[i];
+            data[i] = data[j];
+            data[j] = t;
+        }
+    }
+
+    /**
+     * Removes every point, keeping the storage for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the list
+     */
+    public IntPointList copy() {
+        IntPointList result = new IntPointList(size);
+        result.addAll(this, 0, size);
+        return result;
+    }
+
+    /**
+     * @return the points of the list as Point objects
+     */
+    public ArrayList<Point> toPointList() {
+        ArrayList<Point> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            result.add(unpack(data[i]));
+        return result;
+    }
+
+    /**
+     * @param other other list
+     * @return true if both lists have the same points in the same order
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof IntPointList list) || list.size != size) return false;
+        return Arrays.equals(data, 0, size, list.data, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++)
+            hash = 31 * hash + data[i];
+        return hash;
+    }
+}
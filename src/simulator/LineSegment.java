@@ -65,7 +65,19 @@ public record LineSegment(Point p1, Point p2) {
      * @see <a href="https://www.sanfoundry.com/java-program-bresenham-line-algorithm/">...</a>
      */
     public List<Point> drawLine() {
+        IntPointList packed = drawPackedLine();
         LinkedList<Point> result = new LinkedList<>();
+        for (int i = 0; i < packed.size(); i++)
+            result.add(IntPointList.unpack(packed.get(i)));
+        return result;
+    }
+
+    /**
+     * drawPackedLine method, calculates the points that go along the line segment packed by IntPointList.pack, using the Bresenham Line Drawing Algorithm
+     * @post returns the same points as drawLine, in the same order
+     * @return packed list containing the points that go along the line segment
+     */
+    public IntPointList drawPackedLine() {
         int x0 = p1.x();
         int y0 = p1.y();
         int x1 = p2.x();
@@ -73,6 +85,7 @@ public record LineSegment(Point p1, Point p2) {
 
         int dx = Math.abs(x1 - x0);
         int dy = Math.abs(y1 - y0);
+        IntPointList result = new IntPointList(Math.max(dx, dy) + 1);
 
         int sx = x0 < x1 ? 1 : -1;
         int sy = y0 < y1 ? 1 : -1;
@@ -80,7 +93,7 @@ public record LineSegment(Point p1, Point p2) {
         int err = dx - dy;
 
         while (true) {
-            result.add(new Point(x0, y0));
+            result.add(IntPointList.pack(x0, y0));
             if (x0 == x1 && y0 == y1)
                 break;
             int e2 = 2 * err;
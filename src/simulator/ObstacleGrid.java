@@ -0,0 +1,254 @@
+package simulator;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Class ObstacleGrid, an immutable list of obstacles indexed by a uniform grid over the map.
+ * Every obstacle is registered in the cells covered by its bounding box, so point and segment queries only test the
+ * obstacles of the cells they go through instead of every obstacle on the map.
+ * Trajectories built over an ObstacleGrid use it to find the obstacles each of their segments collides with.
+ * A grid built for a version of a DeliveryMap remembers those collisions in the map's SegmentCollisionMemo, so every
+ * planner on the map tests each segment only once.
+ *
+ * @inv shapes != null &amp;&amp; cellSize > 0
+ */
+public class ObstacleGrid extends AbstractList<Shape> implements RandomAccess {
+
+    private static final int MAP_SIZE = 1000;
+    private static final int DEFAULT_CELL_SIZE = 50;
+
+    private final Shape[] shapes;
+    private final int cellSize;
+    private final int cellsPerSide;
+    private final int[][] cells;
+    private final SegmentCollisionMemo memo;
+    private final long version;
+
+    /**
+     * Constructor for ObstacleGrid class with the default cell size.
+     *
+     * @param obstacles obstacles to index
+     * @pre obstacles != null
+     * @throws IllegalArgumentException if obstacles is null
+     */
+    public ObstacleGrid(List<Shape> obstacles) {
+        this(obstacles, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor for ObstacleGrid class.
+     *
+     * @param obstacles obstacles to index, later changes to the list are not reflected in the grid
+     * @param cellSize  side of each cell of the grid
+     * @pre obstacles != null &amp;&amp; cellSize > 0
+     * @post every obstacle is registered in the cells covered by its bounding box
+     * @throws IllegalArgumentException if obstacles is null or cellSize is not positive
+     */
+    public ObstacleGrid(List<Shape> obstacles, int cellSize) {
+        this(obstacles, cellSize, null, 0);
+    }
+
+    /**
+     * Constructor for ObstacleGrid class with the default cell size, whose segment collisions are remembered in a memo.
+     *
+     * @param obstacles obstacles to index, later changes to the list are not reflected in the grid
+     * @param memo      memo shared by the grids of every version of the same map
+     * @param version   version of the map the obstacles belong to
+     * @pre obstacles != null &amp;&amp; memo != null
+     * @throws IllegalArgumentException if obstacles is null
+     */
+    public ObstacleGrid(List<Shape> obstacles, SegmentCollisionMemo memo, long version) {
+        this(obstacles, DEFAULT_CELL_SIZE, memo, version);
+    }
+
+    /**
+     * Constructor for ObstacleGrid class.
+     *
+     * @param obstacles obstacles to index, later changes to the list are not reflected in the grid
+     * @param cellSize  side of each cell of the grid
+     * @param memo      memo of segment collisions, null to test every segment
+     * @param version   version of the map the obstacles belong to
+     * @pre obstacles != null &amp;&amp; cellSize > 0
+     * @post every obstacle is registered in the cells covered by its bounding box
+     * @throws IllegalArgumentException if obstacles is null or cellSize is not positive
+     */
+    private ObstacleGrid(List<Shape> obstacles, int cellSize, SegmentCollisionMemo memo, long version) {
+        if (obstacles == null) throw new IllegalArgumentException("Obstacles list cannot be null");
+        if (cellSize <= 0) throw new IllegalArgumentException("Cell size must be positive");
+        this.shapes = obstacles.toArray(new Shape[0]);
+        this.cellSize = cellSize;
+        this.memo = memo;
+        this.version = version;
+        this.cellsPerSide = (MAP_SIZE + cellSize - 1) / cellSize;
+        int[] counts = new int[cellsPerSide * cellsPerSide];
+        int[][] bounds = new int[shapes.length][];
+        for (int i = 0; i < shapes.length; i++) {
+            bounds[i] = cellBounds(shapes[i]);
+            for (int row = bounds[i][1]; row <= bounds[i][3]; row++)
+                for (int column = bounds[i][0]; column <= bounds[i][2]; column++)
+                    counts[row * cellsPerSide + column]++;
+        }
+        this.cells = new int[counts.length][];
+        for (int cell = 0; cell < counts.length; cell++)
+            cells[cell] = new int[counts[cell]];
+        int[] filled = new int[counts.length];
+        for (int i = 0; i < shapes.length; i++)
+            for (int row = bounds[i][1]; row <= bounds[i][3]; row++)
+                for (int column = bounds[i][0]; column <= bounds[i][2]; column++) {
+                    int cell = row * cellsPerSide + column;
+                    cells[cell][filled[cell]++] = i;
+                }
+    }
+
+    /**
+     * Calculates the cells covered by the bounding box of a shape.
+     *
+     * @param shape shape
+     * @return first column, first row, last column and last row covered by the shape
+     */
+    private int[] cellBounds(Shape shape) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double radius = shape instanceof Circle circle ? circle.getRadius() : 0;
+        for (Point p : shape.getPoints()) {
+            minX = Math.min(minX, p.x() - radius);
+            minY = Math.min(minY, p.y() - radius);
+            maxX = Math.max(maxX, p.x() + radius);
+            maxY = Math.max(maxY, p.y() + radius);
+        }
+        return new int[]{cellOf(minX), cellOf(minY), cellOf(maxX), cellOf(maxY)};
+    }
+
+    /**
+     * @param coordinate coordinate on the map, clamped to the map
+     * @return index of the row or column of the coordinate
+     */
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(Math.min(Math.max(coordinate, 0), MAP_SIZE - 1) / cellSize);
+    }
+
+    /**
+     * Determines if a point is inside any obstacle.
+     *
+     * @param p point
+     * @return true if some obstacle surrounds p
+     * @pre p != null
+     */
+    public boolean isObstructed(Point p) {
+        for (int i : cells[cellOf(p.y()) * cellsPerSide + cellOf(p.x())])
+            if (shapes[i].surrounds(p))
+                return true;
+        return false;
+    }
+
+    /**
+     * Determines if a segment intercepts any obstacle.
+     *
+     * @param segment segment
+     * @return true if some obstacle is intercepted by the segment
+     * @pre segment != null
+     */
+    public boolean isObstructed(LineSegment segment) {
+        return countCollisions(List.of(segment.p1(), segment.p2())) > 0;
+    }
+
+    /**
+     * Counts the obstacles intercepted by the polyline through the given points, testing each segment only against
+     * the obstacles of the cells it goes through.
+     * Gives the same result as testing every segment against every obstacle.
+     *
+     * @param points consecutive points of the polyline, with no two equal consecutive points
+     * @return number of distinct obstacles intercepted by at least one segment
+     * @pre points != null
+     */
+    public int countCollisions(List<Point> points) {
+        long[] collided = new long[words()];
+        for (int k = 0; k < points.size() - 1; k++) {
+            long[] mask = collisions(IntPointList.pack(points.get(k)), IntPointList.pack(points.get(k + 1)));
+            for (int w = 0; w < mask.length; w++)
+                collided[w] |= mask[w];
+        }
+        int result = 0;
+        for (long word : collided)
+            result += Long.bitCount(word);
+        return result;
+    }
+
+    /**
+     * @return number of longs needed for a bitmask with one bit per obstacle
+     */
+    public int words() {
+        return (shapes.length + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Finds the obstacles intercepted by a segment, looking the segment up in the memo first when the grid has one.
+     *
+     * @param start first point of the segment, packed by IntPointList.pack
+     * @param end   second point of the segment, packed by IntPointList.pack
+     * @return bitmask with one bit per obstacle, in the order of the list, which may be shared and must not be modified
+     * @post return.length == words()
+     */
+    public long[] collisions(int start, int end) {
+        long key = SegmentCollisionMemo.key(start, end);
+        long[] mask = memo == null ? null : memo.get(key, version);
+        if (mask == null) {
+            mask = new long[words()];
+            markCollisions(new LineSegment(IntPointList.unpack(start), IntPointList.unpack(end)), mask);
+            if (memo != null)
+                memo.put(key, version, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Sets the bit of every obstacle intercepted by the segment in the given bitmask, testing only the obstacles of
+     * the cells the segment goes through. Obstacles whose bit is already set are not tested again.
+     *
+     * @param segment segment
+     * @param mask    bitmask with one bit per obstacle, in the order of the list
+     * @pre segment != null &amp;&amp; mask.length == words()
+     * @post mask has the bit of every obstacle intercepted by segment set
+     */
+    public void markCollisions(LineSegment segment, long[] mask) {
+        long[] tested = mask.clone();
+        int x0 = segment.p1().x(), y0 = segment.p1().y(), x1 = segment.p2().x(), y1 = segment.p2().y();
+        if (x0 > x1) {
+            int t = x0; x0 = x1; x1 = t;
+            t = y0; y0 = y1; y1 = t;
+        }
+        // Walk the columns crossed by the segment, then the rows the segment spans inside each column
+        for (int column = cellOf(x0); column <= cellOf(x1); column++) {
+            double xa = Math.max(x0, column * cellSize);
+            double xb = Math.min(x1, (column + 1) * cellSize);
+            double ya = x0 == x1 ? y0 : y0 + (double) (y1 - y0) * (xa - x0) / (x1 - x0);
+            double yb = x0 == x1 ? y1 : y0 + (double) (y1 - y0) * (xb - x0) / (x1 - x0);
+            for (int row = cellOf(Math.min(ya, yb)); row <= cellOf(Math.max(ya, yb)); row++)
+                for (int i : cells[row * cellsPerSide + column]) {
+                    if ((tested[i >>> 6] & (1L << i)) != 0)
+                        continue;
+                    tested[i >>> 6] |= 1L << i;
+                    if (shapes[i].isIntercepted(segment))
+                        mask[i >>> 6] |= 1L << i;
+                }
+        }
+    }
+
+    /**
+     * @param index index of the obstacle
+     * @return obstacle at the given index
+     */
+    @Override
+    public Shape get(int index) {
+        return shapes[index];
+    }
+
+    /**
+     * @return number of obstacles in the grid
+     */
+    @Override
+    public int size() {
+        return shapes.length;
+    }
+}
@@ -0,0 +1,251 @@
+package simulator;
+
+import java.util.List;
+
+/**
+ * Class OccupancyRaster, a bitmap of the map with one bit per pixel, set when the pixel is inside some obstacle.
+ * The raster is filled once with Shape.surrounds, so a point query is a single bit test that agrees with it.
+ * Segments are checked over the same pixels LineSegment.drawLine gives, which are the pixels a robot moves through.
+ *
+ * @inv bits.length == SIZE * SIZE / 64
+ */
+public class OccupancyRaster {
+
+    /**
+     * Side of the map in pixels.
+     */
+    public static final int SIZE = 1000;
+
+    private final long[] bits;
+    // Free pixels in the words before each word of bits, counted on the first free pixel lookup
+    private volatile int[] freeBefore;
+
+    /**
+     * Constructor for OccupancyRaster class.
+     *
+     * @param obstacles obstacles to rasterize, later changes to the list are not reflected in the raster
+     * @pre obstacles != null
+     * @post isOccupied(x, y) is true iff some obstacle surrounds (x, y)
+     * @throws IllegalArgumentException if obstacles is null
+     */
+    public OccupancyRaster(List<Shape> obstacles) {
+        if (obstacles == null) throw new IllegalArgumentException("Obstacles list cannot be null");
+        this.bits = new long[SIZE * SIZE / Long.SIZE];
+        for (Shape obstacle : obstacles)
+            fill(obstacle);
+    }
+
+    private OccupancyRaster(long[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Grows every obstacle of the raster, so pixels next to an obstacle become occupied as well.
+     *
+     * @param pixels how far obstacles grow, in pixels along each axis
+     * @return raster where a pixel is occupied iff some pixel at most the given distance away along each axis is occupied here
+     * @pre pixels &ge; 0
+     * @throws IllegalArgumentException if pixels is negative
+     */
+    public OccupancyRaster inflate(int pixels) {
+        if (pixels < 0) throw new IllegalArgumentException("Pixels cannot be negative");
+        OccupancyRaster rows = new OccupancyRaster(new long[bits.length]);
+        for (int y = 0; y < SIZE; y++)
+            for (int x = 0; x < SIZE; x++)
+                if (isOccupied(x, y))
+                    for (int nx = Math.max(0, x - pixels); nx <= Math.min(SIZE - 1, x + pixels); nx++)
+                        rows.set(nx, y);
+        OccupancyRaster result = new OccupancyRaster(new long[bits.length]);
+        for (int y = 0; y < SIZE; y++)
+            for (int x = 0; x < SIZE; x++)
+                if (rows.isOccupied(x, y))
+                    for (int ny = Math.max(0, y - pixels); ny <= Math.min(SIZE - 1, y + pixels); ny++)
+                        result.set(x, ny);
+        return result;
+    }
+
+    /**
+     * Marks the outline of every polygon, the pixels LineSegment.drawLine gives for each of its sides, closing side
+     * included. Thin parts of polygons, like sharp corners, may have no pixel surrounded by them, so this makes sure
+     * every polygon has all its sides occupied.
+     *
+     * @param obstacles obstacles whose outlines are marked
+     * @return raster with the pixels of this raster and those of the outlines occupied
+     * @pre obstacles != null
+     */
+    public OccupancyRaster withOutlines(List<Shape> obstacles) {
+        OccupancyRaster result = new OccupancyRaster(bits.clone());
+        for (Shape obstacle : obstacles) {
+            if (obstacle instanceof Circle)
+                continue;
+            Point[] points = obstacle.getPoints();
+            for (int i = 0; i < points.length; i++) {
+                IntPointList line = new LineSegment(points[i], points[(i + 1) % points.length]).drawPackedLine();
+                for (int j = 0; j < line.size(); j++)
+                    result.set(IntPointList.x(line.get(j)), IntPointList.y(line.get(j)));
+            }
+        }
+        return result;
+    }
+
+    private void set(int x, int y) {
+        int i = index(x, y);
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * Sets the bit of every pixel of the shape, only testing the pixels of its bounding box.
+     *
+     * @param shape shape to fill
+     */
+    private void fill(Shape shape) {
+        double radius = shape instanceof Circle circle ? circle.getRadius() : 0;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Point p : shape.getPoints()) {
+            minX = Math.min(minX, p.x() - radius);
+            minY = Math.min(minY, p.y() - radius);
+            maxX = Math.max(maxX, p.x() + radius);
+            maxY = Math.max(maxY, p.y() + radius);
+        }
+        int fromX = (int) Math.max(0, Math.floor(minX)), toX = (int) Math.min(SIZE - 1, Math.ceil(maxX));
+        int fromY = (int) Math.max(0, Math.floor(minY)), toY = (int) Math.min(SIZE - 1, Math.ceil(maxY));
+        for (int y = fromY; y <= toY; y++)
+            for (int x = fromX; x <= toX; x++)
+                if (!isOccupied(x, y) && shape.surrounds(new Point(x, y)))
+                    set(x, y);
+    }
+
+    private static int index(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    /**
+     * Determines if a pixel is inside some obstacle.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true if the pixel is occupied
+     * @pre 0 &le; x &lt; SIZE &amp;&amp; 0 &le; y &lt; SIZE
+     */
+    public boolean isOccupied(int x, int y) {
+        int i = index(x, y);
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Determines if a point is inside some obstacle.
+     *
+     * @param p point
+     * @return true if the point is occupied
+     * @pre p != null
+     */
+    public boolean isOccupied(Point p) {
+        return isOccupied(p.x(), p.y());
+    }
+
+    /**
+     * Determines if every pixel a robot goes through along the segment is free, walking the same pixels as
+     * LineSegment.drawLine without building them.
+     *
+     * @param segment segment
+     * @return true if no pixel of the segment is occupied
+     * @pre segment != null
+     */
+    public boolean isSegmentClear(LineSegment segment) {
+        int x0 = segment.p1().x();
+        int y0 = segment.p1().y();
+        int x1 = segment.p2().x();
+        int y1 = segment.p2().y();
+
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+
+        int err = dx - dy;
+
+        while (true) {
+            if (isOccupied(x0, y0))
+                return false;
+            if (x0 == x1 && y0 == y1)
+                return true;
+            int e2 = 2 * err;
+            if (e2 > -dy) {
+                err -= dy;
+                x0 += sx;
+            }
+            if (e2 < dx) {
+                err += dx;
+                y0 += sy;
+            }
+        }
+    }
+
+    /**
+     * Determines if every pixel a robot goes through along the trajectory is free.
+     *
+     * @param trajectory trajectory
+     * @return true if no pixel of any segment of the trajectory is occupied
+     * @pre trajectory != null
+     */
+    public boolean isTrajectoryClear(Trajectory trajectory) {
+        List<Point> points = trajectory.getPoints();
+        if (points.size() == 1)
+            return !isOccupied(points.get(0));
+        for (int i = 0; i < points.size() - 1; i++)
+            if (!isSegmentClear(new LineSegment(points.get(i), points.get(i + 1))))
+                return false;
+        return true;
+    }
+
+    /**
+     * @return number of free pixels
+     */
+    public int freePixels() {
+        return SIZE * SIZE - occupiedPixels();
+    }
+
+    /**
+     * Finds a free pixel by its rank among the free pixels, in row order, so drawing a uniform rank draws a uniform
+     * free pixel. The free pixels of each word are counted once, and the word of the rank is found by binary search.
+     *
+     * @param rank rank of the free pixel, 0 for the first one
+     * @return the free pixel, packed by IntPointList.pack
+     * @pre 0 &le; rank &lt; freePixels()
+     * @throws IllegalArgumentException if there is no free pixel of that rank
+     */
+    public int freePixel(int rank) {
+        int[] before = freeBefore;
+        if (before == null) {
+            before = new int[bits.length + 1];
+            for (int w = 0; w < bits.length; w++)
+                before[w + 1] = before[w] + Long.SIZE - Long.bitCount(bits[w]);
+            freeBefore = before;
+        }
+        if (rank < 0 || rank >= before[bits.length]) throw new IllegalArgumentException("There is no free pixel of rank " + rank);
+        int low = 0, high = bits.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (before[middle] <= rank)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        long free = ~bits[low];
+        for (int skip = rank - before[low]; skip > 0; skip--)
+            free &= free - 1;
+        int i = low * Long.SIZE + Long.numberOfTrailingZeros(free);
+        return IntPointList.pack(i % SIZE, i / SIZE);
+    }
+
+    /**
+     * @return number of occupied pixels
+     */
+    public int occupiedPixels() {
+        int count = 0;
+        for (long word : bits)
+            count += Long.bitCount(word);
+        return count;
+    }
+}
@@ -0,0 +1,101 @@
+package simulator;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class OffspringTask, a fork-join task that builds, mutates and scores one generation of offspring.
+ * Each pair of parents is crossed over with its own random stream, seeded beforehand by the planner,
+ * so a seeded run produces the same offspring no matter how many workers take part.
+ * The children are individuals of an older generation, overwritten in place instead of allocating new ones.
+ *
+ * @inv parents != null &amp;&amp; parentIndexes.length == 2 * seeds.length &amp;&amp; children.length == 2 * seeds.length
+ */
+@SuppressWarnings("serial")
+class OffspringTask extends RecursiveAction {
+
+    private static final int PAIRS_PER_TASK = 8;
+
+    private final List<Trajectory> parents;
+    private final PointGenerator generator;
+    private final int[] parentIndexes;
+    private final long[] seeds;
+    private final Trajectory[] children;
+    private final double pm;
+    private final double pa;
+    private final double pr;
+    private final double pb;
+    private final int from;
+    private final int to;
+
+    /**
+     * Constructor for OffspringTask class, covering every pair of parents.
+     *
+     * @param parents       selection winners to cross over
+     * @param generator     point generator of the population, each pair uses a copy of it bound to its own random stream
+     * @param parentIndexes indexes of the parents, two per pair
+     * @param seeds         seed of the random stream of each pair
+     * @param children      trajectories overwritten with the offspring, those of pair i at 2i and 2i + 1
+     * @param pm            mutation probability
+     * @param pa            point addition probability
+     * @param pr            point removal probability
+     * @param pb            probability of each operator that moves or adds a point next to a collided obstacle
+     * @pre parents != null &amp;&amp; parentIndexes.length == 2 * seeds.length &amp;&amp; children.length == 2 * seeds.length
+     * @pre no child is null or one of the parents
+     */
+    OffspringTask(List<Trajectory> parents, PointGenerator generator, int[] parentIndexes, long[] seeds, Trajectory[] children, double pm, double pa, double pr, double pb) {
+        this(parents, generator, parentIndexes, seeds, children, pm, pa, pr, pb, 0, seeds.length);
+    }
+
+    private OffspringTask(List<Trajectory> parents, PointGenerator generator, int[] parentIndexes, long[] seeds, Trajectory[] children, double pm, double pa, double pr, double pb, int from, int to) {
+        this.parents = parents;
+        this.generator = generator;
+        this.parentIndexes = parentIndexes;
+        this.seeds = seeds;
+        this.children = children;
+        this.pm = pm;
+        this.pa = pa;
+        this.pr = pr;
+        this.pb = pb;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Splits the range of pairs until it is small enough, then breeds every pair in it.
+     *
+     * @post children[2 * from .. 2 * to - 1] hold the offspring of pairs from .. to - 1
+     */
+    @Override
+    protected void compute() {
+        if (to - from <= PAIRS_PER_TASK) {
+            for (int pair = from; pair < to; pair++)
+                breed(pair);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new OffspringTask(parents, generator, parentIndexes, seeds, children, pm, pa, pr, pb, from, middle),
+                new OffspringTask(parents, generator, parentIndexes, seeds, children, pm, pa, pr, pb, middle, to));
+    }
+
+    /**
+     * Crosses over one pair of parents and mutates both children, using only the random stream of that pair.
+     *
+     * @param pair index of the pair
+     */
+    private void breed(int pair) {
+        Random rng = new Random(seeds[pair]);
+        PointGenerator generator = this.generator.withRandom(rng);
+        Trajectory first = parents.get(parentIndexes[2 * pair]);
+        Trajectory second = parents.get(parentIndexes[2 * pair + 1]);
+        first.onePointCrossover(second, children[2 * pair], children[2 * pair + 1], generator, rng);
+        for (int i = 2 * pair; i < 2 * pair + 2; i++) {
+            children[i].mutate(pm);
+            children[i].addPoint(pa);
+            children[i].removePoint(pr);
+            children[i].mutateNearObstacle(pb);
+            children[i].addPointNearObstacle(pb);
+        }
+    }
+}
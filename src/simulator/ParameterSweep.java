@@ -0,0 +1,406 @@
+package simulator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Class ParameterSweep, runs a headless BatchSimulation for every configuration of a parameter grid and every seed,
+ * in parallel on every core, and aggregates the reports of each configuration into one CSV row.
+ * The grid is the product of the fleet sizes, obstacle counts, and mutation, point addition and point removal
+ * probabilities of the robots' GeneticPathPlanner. Every run has its own seeded random number generator and builds its
+ * offspring on its own single thread fork-join pool, so runs do not compete for the common pool. By default the
+ * planners stop at their generation limit, so runs are independent of each other and of the order they finish in; with
+ * a time budget, runs plan less when the machine is busy and are no longer repeatable.
+ * It is built with its Builder, like the Planner.
+ *
+ * @inv every list of the grid and seeds is non empty &amp;&amp; threads > 0
+ */
+public class ParameterSweep {
+
+    /**
+     * Header of the CSV written by writeCsv.
+     */
+    public static final String CSV_HEADER = "robots,obstacles,pm,pa,pr,runs,released,delivered,deliveries_per_1000_ticks,mean_latency,mean_p99_latency,mean_ticks_per_second,mean_planner_time_share";
+
+    /**
+     * One point of the parameter grid.
+     *
+     * @param robots    number of robots
+     * @param obstacles number of obstacles
+     * @param pm        mutation probability of the planners
+     * @param pa        point addition probability of the planners
+     * @param pr        point removal probability of the planners
+     */
+    public record Configuration(int robots, int obstacles, double pm, double pa, double pr) { }
+
+    /**
+     * Reports of every seed of a configuration, aggregated.
+     *
+     * @param configuration the configuration
+     * @param reports       report of the run of each seed, in the order of the seeds
+     */
+    public record Result(Configuration configuration, List<BatchReport> reports) {
+
+        /**
+         * @return requests released over every run
+         */
+        public int released() {
+            return reports.stream().mapToInt(BatchReport::released).sum();
+        }
+
+        /**
+         * @return requests delivered over every run
+         */
+        public int delivered() {
+            return reports.stream().mapToInt(BatchReport::delivered).sum();
+        }
+
+        /**
+         * @return deliveries per 1000 ticks over every run
+         */
+        public double throughput() {
+            return 1000.0 * delivered() / reports.stream().mapToLong(BatchReport::ticks).sum();
+        }
+
+        /**
+         * @return mean latency of every delivered request of every run, NaN if none was delivered
+         */
+        public double meanLatency() {
+            double total = reports.stream().filter(r -> r.delivered() > 0).mapToDouble(r -> r.meanLatency() * r.delivered()).sum();
+            return delivered() == 0 ? Double.NaN : total / delivered();
+        }
+
+        /**
+         * @return mean of the 99th percentile latencies of the runs that delivered something, NaN if none did
+         */
+        public double meanP99Latency() {
+            return reports.stream().filter(r -> r.delivered() > 0).mapToInt(BatchReport::p99Latency).average().orElse(Double.NaN);
+        }
+
+        /**
+         * @return mean ticks per second of the runs
+         */
+        public double meanTicksPerSecond() {
+            return reports.stream().mapToDouble(BatchReport::ticksPerSecond).average().orElse(Double.NaN);
+        }
+
+        /**
+         * @return mean planner time share of the runs
+         */
+        public double meanPlannerTimeShare() {
+            return reports.stream().mapToDouble(BatchReport::plannerTimeShare).average().orElse(Double.NaN);
+        }
+
+        /**
+         * @return the result as a row of the CSV, in the columns of CSV_HEADER
+         */
+        public String toCsvRow() {
+            return String.format(Locale.ROOT, "%d,%d,%s,%s,%s,%d,%d,%d,%.4f,%.2f,%.2f,%.1f,%.4f", configuration.robots(), configuration.obstacles(),
+                    configuration.pm(), configuration.pa(), configuration.pr(), reports.size(), released(), delivered(), throughput(),
+                    meanLatency(), meanP99Latency(), meanTicksPerSecond(), meanPlannerTimeShare());
+        }
+    }
+
+    private final int[] robots;
+    private final int[] obstacles;
+    private final double[] pm;
+    private final double[] pa;
+    private final double[] pr;
+    private final long[] seeds;
+    private final int requests;
+    private final int requestInterval;
+    private final int maxTicks;
+    private final Duration budget;
+    private final SimulationEngine engine;
+    private final int threads;
+
+    private ParameterSweep(Builder builder) {
+        this.robots = builder.robots;
+        this.obstacles = builder.obstacles;
+        this.pm = builder.pm;
+        this.pa = builder.pa;
+        this.pr = builder.pr;
+        this.seeds = builder.seeds;
+        this.requests = builder.requests;
+        this.requestInterval = builder.requestInterval;
+        this.maxTicks = builder.maxTicks;
+        this.budget = builder.budget;
+        this.engine = builder.engine;
+        this.threads = builder.threads;
+    }
+
+    /**
+     * Builder class for ParameterSweep. Every list of the grid defaults to the single value the simulator uses.
+     */
+    public static class Builder {
+        private int[] robots = {10}; // default is 10
+        private int[] obstacles = {20}; // default is 20
+        private double[] pm = {GeneticPathPlanner.DEFAULT_PM};
+        private double[] pa = {GeneticPathPlanner.DEFAULT_PA};
+        private double[] pr = {GeneticPathPlanner.DEFAULT_PR};
+        private long[] seeds = {0}; // default is a single seed, 0
+        private int requests = 100; // default is 100
+        private int requestInterval = 10; // default is 10
+        private int maxTicks = 100_000; // default is 100000
+        private Duration budget = null; // default stops planning at the generation limit
+        private SimulationEngine engine = SimulationEngine.EVENT;
+        private int threads = Runtime.getRuntime().availableProcessors(); // default is one run per core
+
+        /**
+         * @param robots fleet sizes to try
+         * @return This Builder instance
+         */
+        public Builder robots(int... robots) {
+            this.robots = robots.clone();
+            return this;
+        }
+
+        /**
+         * @param obstacles obstacle counts to try
+         * @return This Builder instance
+         */
+        public Builder obstacles(int... obstacles) {
+            this.obstacles = obstacles.clone();
+            return this;
+        }
+
+        /**
+         * @param pm mutation probabilities to try
+         * @return This Builder instance
+         */
+        public Builder pm(double... pm) {
+            this.pm = pm.clone();
+            return this;
+        }
+
+        /**
+         * @param pa point addition probabilities to try
+         * @return This Builder instance
+         */
+        public Builder pa(double... pa) {
+            this.pa = pa.clone();
+            return this;
+        }
+
+        /**
+         * @param pr point removal probabilities to try
+         * @return This Builder instance
+         */
+        public Builder pr(double... pr) {
+            this.pr = pr.clone();
+            return this;
+        }
+
+        /**
+         * @param seeds seeds every configuration is run with
+         * @return This Builder instance
+         */
+        public Builder seeds(long... seeds) {
+            this.seeds = seeds.clone();
+            return this;
+        }
+
+        /**
+         * @param count    random requests of every run
+         * @param interval ticks between two requests
+         * @return This Builder instance
+         * @pre count &ge; 0 &amp;&amp; interval > 0
+         */
+        public Builder requests(int count, int interval) {
+            this.requests = count;
+            this.requestInterval = interval;
+            return this;
+        }
+
+        /**
+         * @param maxTicks ticks after which every run stops
+         * @return This Builder instance
+         * @pre maxTicks > 0
+         */
+        public Builder maxTicks(int maxTicks) {
+            this.maxTicks = maxTicks;
+            return this;
+        }
+
+        /**
+         * @param budget maximum time spent planning each trajectory, null to stop at the generation limit only
+         * @return This Builder instance
+         */
+        public Builder budget(Duration budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * @param engine how every run advances time
+         * @return This Builder instance
+         * @pre engine != null
+         */
+        public Builder engine(SimulationEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * @param threads number of runs at the same time
+         * @return This Builder instance
+         * @pre threads > 0
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @return a new ParameterSweep with the settings of this builder
+         * @throws IllegalArgumentException if a list is empty or a setting is out of range
+         */
+        public ParameterSweep build() {
+            if (robots.length == 0 || obstacles.length == 0 || pm.length == 0 || pa.length == 0 || pr.length == 0 || seeds.length == 0)
+                throw new IllegalArgumentException("Every parameter needs at least one value");
+            if (threads <= 0 || engine == null)
+                throw new IllegalArgumentException("Threads must be positive and engine cannot be null");
+            return new ParameterSweep(this);
+        }
+    }
+
+    /**
+     * @return every configuration of the grid, the last parameter changing fastest
+     */
+    public List<Configuration> configurations() {
+        List<Configuration> configurations = new ArrayList<>();
+        for (int r : robots)
+            for (int o : obstacles)
+                for (double m : pm)
+                    for (double a : pa)
+                        for (double d : pr)
+                            configurations.add(new Configuration(r, o, m, a, d));
+        return configurations;
+    }
+
+    /**
+     * Builds the configuration of the batch simulation of a configuration and a seed.
+     *
+     * @param configuration point of the grid
+     * @param seed          seed of the run
+     * @param plannerPool   fork-join pool of the planners of the run
+     * @return the configuration of the run
+     * @throws IllegalArgumentException if the settings are out of range
+     */
+    private BatchConfig batchConfig(Configuration configuration, long seed, ForkJoinPool plannerPool) {
+        return new BatchConfig.Builder().seed(seed).robots(configuration.robots()).obstacles(configuration.obstacles())
+                .randomRequests(requests, requestInterval).maxTicks(maxTicks).engine(engine)
+                .plannerFactory((map, rng) -> new GeneticPathPlanner(map, new PointGenerator(rng), rng, budget, plannerPool, configuration.pm(), configuration.pa(), configuration.pr()))
+                .build();
+    }
+
+    /**
+     * Runs the batch simulation of a configuration and a seed, with a planner pool of its own.
+     *
+     * @param configuration point of the grid
+     * @param seed          seed of the run
+     * @return the report of the run
+     * @throws IllegalArgumentException if the settings are out of range
+     * @post the planner pool of the run is shut down
+     */
+    private BatchReport runOne(Configuration configuration, long seed) {
+        ForkJoinPool plannerPool = new ForkJoinPool(1);
+        try {
+            return new BatchSimulation(batchConfig(configuration, seed, plannerPool)).run();
+        } finally {
+            plannerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs every configuration with every seed.
+     *
+     * @return the result of every configuration, in the order of configurations()
+     * @throws IllegalArgumentException if a configuration is out of range
+     * @throws InterruptedException     if the thread is interrupted while waiting for the runs
+     * @post every thread started by the sweep is stopped
+     */
+    public List<Result> run() throws InterruptedException {
+        List<Configuration> configurations = configurations();
+        // Every configuration is checked before the first run starts
+        for (Configuration configuration : configurations)
+            batchConfig(configuration, seeds[0], ForkJoinPool.commonPool());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<List<Future<BatchReport>>> futures = new ArrayList<>();
+            for (Configuration configuration : configurations) {
+                List<Future<BatchReport>> submitted = new ArrayList<>();
+                for (long seed : seeds)
+                    submitted.add(pool.submit(() -> runOne(configuration, seed)));
+                futures.add(submitted);
+            }
+            List<Result> results = new ArrayList<>();
+            for (int i = 0; i < configurations.size(); i++) {
+                List<BatchReport> reports = new ArrayList<>();
+                for (Future<BatchReport> future : futures.get(i))
+                    reports.add(future.get());
+                results.add(new Result(configurations.get(i), List.copyOf(reports)));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes results as CSV, a header and one row per configuration.
+     *
+     * @param results results of a sweep
+     * @param writer  where the CSV is written, it is not closed
+     * @throws IOException if the CSV cannot be written
+     * @pre results != null &amp;&amp; writer != null
+     */
+    public static void writeCsv(List<Result> results, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write(System.lineSeparator());
+        for (Result result : results) {
+            writer.write(result.toCsvRow());
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Runs a sweep and writes its CSV.
+     * Arguments: the CSV file, then optionally the fleet sizes, obstacle counts and seeds, each a comma separated list.
+     *
+     * @param args CSV file, fleet sizes, obstacle counts and seeds
+     * @throws IOException          if the CSV cannot be written
+     * @throws InterruptedException if the sweep is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) throw new IllegalArgumentException("Usage: ParameterSweep file.csv [robots] [obstacles] [seeds]");
+        Builder builder = new Builder();
+        if (args.length > 1) builder.robots(Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray());
+        if (args.length > 2) builder.obstacles(Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray());
+        if (args.length > 3) builder.seeds(Arrays.stream(args[3].split(",")).mapToLong(Long::parseLong).toArray());
+        List<Result> results = builder.build().run();
+        try (Writer writer = Files.newBufferedWriter(Path.of(args[0]))) {
+            writeCsv(results, writer);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package simulator;
+
+import java.util.List;
+
+/**
+ * Class PathCursor, walks the pixels along a trajectory one at a time, stepping the Bresenham Line Drawing Algorithm
+ * segment by segment as it goes instead of building every pixel beforehand.
+ * It goes through the same pixels, in the same order, as Trajectory.calculatePointsAlongTrajectory, so the point
+ * shared by two segments is visited twice. Only the turning points of the trajectory are kept, so its memory doesn't
+ * depend on how long the trajectory is.
+ *
+ * @inv xs.length == ys.length
+ */
+public class PathCursor {
+
+    private final int[] xs;
+    private final int[] ys;
+    private int segment;
+    private boolean started;
+    private int x;
+    private int y;
+    private int x1;
+    private int y1;
+    private int dx;
+    private int dy;
+    private int sx;
+    private int sy;
+    private int err;
+
+    /**
+     * Constructor for PathCursor class, positioned before the first pixel.
+     *
+     * @param points turning points of the trajectory
+     * @pre points != null
+     * @throws IllegalArgumentException if points is null
+     */
+    public PathCursor(List<Point> points) {
+        this(points == null ? null : IntPointList.of(points));
+    }
+
+    /**
+     * Constructor for PathCursor class, positioned before the first pixel.
+     *
+     * @param points packed turning points of the trajectory
+     * @pre points != null
+     * @throws IllegalArgumentException if points is null
+     */
+    PathCursor(IntPointList points) {
+        if (points == null) throw new IllegalArgumentException("Points cannot be null");
+        this.xs = new int[points.size()];
+        this.ys = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            xs[i] = IntPointList.x(points.get(i));
+            ys[i] = IntPointList.y(points.get(i));
+        }
+    }
+
+    /**
+     * @return true if there are pixels left along the trajectory
+     */
+    public boolean hasNext() {
+        if (xs.length < 2)
+            return false;
+        return !started || x != x1 || y != y1 || segment < xs.length - 2;
+    }
+
+    /**
+     * Moves to the next pixel along the trajectory.
+     *
+     * @pre hasNext()
+     * @post x() and y() are the coordinates of the next pixel
+     * @throws IllegalStateException if there are no pixels left
+     */
+    public void advance() {
+        if (!hasNext()) throw new IllegalStateException("No pixels left along the trajectory");
+        if (!started) {
+            startSegment(0);
+            return;
+        }
+        if (x == x1 && y == y1) {
+            startSegment(segment + 1);
+            return;
+        }
+        int e2 = 2 * err;
+        if (e2 > -dy) {
+            err -= dy;
+            x += sx;
+        }
+        if (e2 < dx) {
+            err += dx;
+            y += sy;
+        }
+    }
+
+    /**
+     * Counts the pixels left along the trajectory without moving. Bresenham's algorithm moves one pixel along the
+     * longer axis of a segment at every step, so each segment takes as many steps as its longer side, plus one for
+     * its first pixel.
+     *
+     * @return number of times advance() can still be called
+     * @post return == 0 iff !hasNext()
+     */
+    public int remaining() {
+        if (xs.length < 2)
+            return 0;
+        int result = started ? Math.max(Math.abs(x1 - x), Math.abs(y1 - y)) : 0;
+        for (int s = started ? segment + 1 : 0; s < xs.length - 1; s++)
+            result += 1 + Math.max(Math.abs(xs[s + 1] - xs[s]), Math.abs(ys[s + 1] - ys[s]));
+        return result;
+    }
+
+    private void startSegment(int segment) {
+        this.segment = segment;
+        this.started = true;
+        x = xs[segment];
+        y = ys[segment];
+        x1 = xs[segment + 1];
+        y1 = ys[segment + 1];
+        dx = Math.abs(x1 - x);
+        dy = Math.abs(y1 - y);
+        sx = x < x1 ? 1 : -1;
+        sy = y < y1 ? 1 : -1;
+        err = dx - dy;
+    }
+
+    /**
+     * @return x coordinate of the current pixel
+     * @pre advance() was called at least once
+     */
+    public int x() {
+        return x;
+    }
+
+    /**
+     * @return y coordinate of the current pixel
+     * @pre advance() was called at least once
+     */
+    public int y() {
+        return y;
+    }
+}
@@ -0,0 +1,18 @@
+package simulator;
+
+/**
+ * Interface PathPlanner, plans the trajectories robots follow on a delivery map.
+ * Implementations must be safe to call from several planner threads at once.
+ */
+public interface PathPlanner {
+
+    /**
+     * Plans a trajectory between two points.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return a trajectory from start to end with no collisions, or null if none was found
+     * @pre start != null &amp;&amp; end != null
+     */
+    Trajectory plan(Point start, Point end);
+}
@@ -1,26 +1,48 @@
 package simulator;
 
 import java.util.*;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 /**
  * Class Planner, used to find trajectories without collisions using a Genetic algorithm
  * The Planner class has a nested Builder class for creating instances with customizable parameters.
+ * With more than one island, several populations evolve on separate threads and periodically send their elites
+ * to the next island in a ring.
  * @author Jude Adam
  * @version 1.0.0 14/04/2023
  * @inv generator != null
  * @inv population != null
+ * @inv islandPopulations != null &amp;&amp; islandPopulations.length &ge; 1
  */
 public class Planner {
 
+    private static final int MAX_GENERATIONS = 150;
+    private static final Comparator<Trajectory> QUALITY = Comparator.comparingInt(Trajectory::getCollisionCount).thenComparingDouble(Trajectory::getLength);
     private final Random rng;
     private TrajectoryPopulation population;
     private final double pm;
     private final double pa;
     private final double pr;
+    private final double pb;
     private final PointGenerator generator;
 
     private final List<Shape> obstacles;
 
+    private final ForkJoinPool pool;
+
+    private final int migrationInterval;
+    private final int migrationSize;
+    private final int stallGenerations;
+    private final int tournamentSize;
+    private final TrajectoryPopulation[] islandPopulations;
+    private final PointGenerator[] islandGenerators;
+    private final Random[] islandRngs;
+    // Individuals of older generations of each island, overwritten with the offspring of the next ones
+    private final List<ArrayDeque<Trajectory>> islandSpares;
 
     /**
      * Constructor for Planner class. This constructor is private and can only be accessed by the Builder.
@@ -28,15 +50,45 @@ public class Planner {
      * @param builder The Builder object containing all required fields for Planner construction.
      * @pre builder != null
      * @post this.generator != null &amp;&amp; this.obstacles != null &amp;&amp; this.rng != null
+     * @throws IllegalArgumentException if the island model parameters are not valid
      */
     private Planner(Builder builder) {
+        if (builder.stallGenerations < 0)
+            throw new IllegalArgumentException("Stall generations cannot be negative");
+        if (builder.tournamentSize < 0)
+            throw new IllegalArgumentException("Tournament size cannot be negative");
+        if (builder.fitnessMode == null)
+            throw new IllegalArgumentException("Fitness mode cannot be null");
+        if (builder.islands < 1 || builder.migrationInterval < 1 || builder.migrationSize < 0 || (builder.islands > 1 && builder.migrationSize > builder.lengths.length))
+            throw new IllegalArgumentException("Invalid island model parameters");
         this.pm = builder.pm;
         this.pa = builder.pa;
         this.pr = builder.pr;
+        this.pb = builder.pb;
         this.generator = builder.generator;
         this.obstacles = builder.obstacles;
         this.rng = builder.rng;
-        this.population = new TrajectoryPopulation(builder.start, builder.end, builder.lengths.length, builder.lengths, generator, obstacles, rng);
+        this.pool = builder.pool;
+        this.migrationInterval = builder.migrationInterval;
+        this.migrationSize = builder.migrationSize;
+        this.stallGenerations = builder.stallGenerations;
+        this.tournamentSize = builder.tournamentSize;
+        this.population = new TrajectoryPopulation(builder.start, builder.end, builder.lengths.length, builder.lengths, generator, obstacles, rng, builder.fitnessMode);
+        this.islandPopulations = new TrajectoryPopulation[builder.islands];
+        this.islandGenerators = new PointGenerator[builder.islands];
+        this.islandRngs = new Random[builder.islands];
+        islandPopulations[0] = population;
+        islandGenerators[0] = generator;
+        islandRngs[0] = rng;
+        this.islandSpares = new ArrayList<>();
+        for (int i = 0; i < builder.islands; i++)
+            islandSpares.add(new ArrayDeque<>());
+        // Every other island gets its own random stream, seeded from the planner's one
+        for (int i = 1; i < builder.islands; i++) {
+            islandRngs[i] = new Random(rng.nextLong());
+            islandGenerators[i] = generator.withRandom(islandRngs[i]);
+            islandPopulations[i] = new TrajectoryPopulation(builder.start, builder.end, builder.lengths.length, builder.lengths, islandGenerators[i], obstacles, islandRngs[i], builder.fitnessMode);
+        }
     }
 
     /**
@@ -50,12 +102,20 @@ public class Planner {
         private double pm = 0.045; //default is 0.045
         private double pa = 0.1; // default is 0.1
         private double pr = 0.1;// default is 0.1
+        private double pb = 0; // default is 0, points are only placed at random
         private Point start;
         private Point end;
         private int[] lengths;
         private PointGenerator generator;
         private List<Shape> obstacles;
         private Random rng;
+        private ForkJoinPool pool = ForkJoinPool.commonPool(); // default is the common pool
+        private int islands = 1; // default is a single population
+        private int migrationInterval = 10; // default is 10
+        private int migrationSize = 2; // default is 2
+        private int stallGenerations = 20; // default is 20
+        private int tournamentSize = 0; // default is rank based selection
+        private FitnessMode fitnessMode = FitnessMode.FEASIBILITY; // default scores every trajectory with collisions as 0
 
         /**
          Setter method for the mutation probability parameter.
@@ -93,6 +153,19 @@ public class Planner {
             return this;
         }
 
+        /**
+         Setter method for the probability of the operators that move or add a point of a colliding segment next to the
+         obstacle it collides with, each applied after mutation, point addition and point removal.
+         @param pb The obstacle detour probability value.
+         @return This Builder instance with the specified obstacle detour probability value.
+         @pre pb &ge; 0
+         @post The obstacle detour probability parameter is set to the specified value.
+         */
+        public Builder pb(double pb) {
+            this.pb = pb;
+            return this;
+        }
+
         /**
          Setter method for the starting point parameter.
          @param start The starting point value.
@@ -167,6 +240,99 @@ public class Planner {
             return this;
         }
 
+        /**
+         * Setter for the pool field, the fork-join pool where offspring are built and scored.
+         *
+         * @param pool The fork-join pool to set.
+         * @return This Builder instance with the pool field set to the provided value.
+         * @pre pool != null
+         * @post This Builder instance has the pool field set to the provided value.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Setter for the islands field, the number of populations that evolve side by side.
+         *
+         * @param islands The number of islands to set.
+         * @return This Builder instance with the islands field set to the provided value.
+         * @pre islands &ge; 1
+         * @post This Builder instance has the islands field set to the provided value.
+         */
+        public Builder islands(int islands) {
+            this.islands = islands;
+            return this;
+        }
+
+        /**
+         * Setter for the migrationInterval field, the number of generations between two migrations.
+         *
+         * @param migrationInterval The migration interval to set.
+         * @return This Builder instance with the migrationInterval field set to the provided value.
+         * @pre migrationInterval &ge; 1
+         * @post This Builder instance has the migrationInterval field set to the provided value.
+         */
+        public Builder migrationInterval(int migrationInterval) {
+            this.migrationInterval = migrationInterval;
+            return this;
+        }
+
+        /**
+         * Setter for the migrationSize field, the number of elites each island sends to the next one.
+         *
+         * @param migrationSize The migration size to set.
+         * @return This Builder instance with the migrationSize field set to the provided value.
+         * @pre 0 &le; migrationSize &le; lengths.length
+         * @post This Builder instance has the migrationSize field set to the provided value.
+         */
+        public Builder migrationSize(int migrationSize) {
+            this.migrationSize = migrationSize;
+            return this;
+        }
+
+        /**
+         * Setter for the stallGenerations field, the number of generations without improvement that the anytime
+         * planner tolerates once it has found a trajectory with no collisions.
+         *
+         * @param stallGenerations The number of stall generations to set.
+         * @return This Builder instance with the stallGenerations field set to the provided value.
+         * @pre stallGenerations &ge; 0
+         * @post This Builder instance has the stallGenerations field set to the provided value.
+         */
+        public Builder stallGenerations(int stallGenerations) {
+            this.stallGenerations = stallGenerations;
+            return this;
+        }
+
+        /**
+         * Setter for the tournamentSize field, the number of individuals in each tournament when tournament selection
+         * is used instead of rank based selection.
+         *
+         * @param tournamentSize The tournament size to set, 0 to use rank based selection.
+         * @return This Builder instance with the tournamentSize field set to the provided value.
+         * @pre tournamentSize &ge; 0
+         * @post This Builder instance has the tournamentSize field set to the provided value.
+         */
+        public Builder tournamentSize(int tournamentSize) {
+            this.tournamentSize = tournamentSize;
+            return this;
+        }
+
+        /**
+         * Setter for the fitnessMode field, how the trajectories of the population are scored.
+         *
+         * @param fitnessMode The fitness mode to set.
+         * @return This Builder instance with the fitnessMode field set to the provided value.
+         * @pre fitnessMode != null
+         * @post This Builder instance has the fitnessMode field set to the provided value.
+         */
+        public Builder fitnessMode(FitnessMode fitnessMode) {
+            this.fitnessMode = fitnessMode;
+            return this;
+        }
+
         /**
          * Builds and returns a new Planner instance using the values stored in this Builder instance.
          *
@@ -181,35 +347,236 @@ public class Planner {
     /**
      * Trajectory Finder method, performs a kind of standard genetic algorithm to find a trajectory with no collisions from one point to another. The
      * algorithm performs rank based selection, elitism, one point crossover, mutation, point addition, and point removal on the population
-     * and replaces the old population with the new one.
+     * and replaces the old population with the new one. With more than one island, the islands are evolved with migration instead.
      *
      * @return best trajectory found
      * @pre population != null
-     * @post result == null || result.calculateCollisions() == 0
+     * @post result == null || result.getCollisionCount() == 0
      */
     public Trajectory findTrajectory() {
-        int maxGenerations = 150;
-        int numElites = (int) (0.1 * population.getIndividuals().size()); // 10% elites
+        if (islandPopulations.length > 1)
+            return findTrajectoryOnIslands();
         Trajectory bestTrajectory = getBestTrajectory(population);
 
         // Evolve the population to find the best trajectory
-        for (int gen = 0; gen < maxGenerations && bestTrajectory.calculateCollisions() > 0; gen++) {
-            TrajectoryPopulation offspring = population.rankBasedSelection();
-            ArrayList<Trajectory> offspringIndividuals = (ArrayList<Trajectory>) generateOffspring(offspring);
-
-            // Apply elitism
-            offspringIndividuals.sort(Comparator.comparingDouble(Trajectory::fitness).reversed());
-            ArrayList<Trajectory> elites = new ArrayList<>(population.getIndividuals());
-            elites.sort(Comparator.comparingDouble(Trajectory::fitness).reversed());
-            for (int i = 0; i < numElites; i++) {
-                offspringIndividuals.set(i, elites.get(i));
+        for (int gen = 0; gen < MAX_GENERATIONS && bestTrajectory.getCollisionCount() > 0; gen++) {
+            population = nextGeneration(population, generator, rng, islandSpares.get(0));
+            bestTrajectory = getBestTrajectory(population);
+        }
+        islandPopulations[0] = population;
+        return bestTrajectory.getCollisionCount() > 0 ? null : snapshot(bestTrajectory);
+    }
+
+    /**
+     * Anytime version of the trajectory finder, runs on the planner's pool and keeps improving the best trajectory
+     * (fewer collisions first, then shorter length) until the time budget is spent, the generation limit is reached,
+     * or stallGenerations generations pass without improvement after a trajectory with no collisions was found.
+     * Every improved best trajectory is published to the listener as soon as it appears.
+     * Cancelling the returned future stops the search at the end of the current generation.
+     *
+     * @param budget        wall-clock time the search may take
+     * @param onImprovement listener that receives a copy of every improved best trajectory, on the planning thread
+     * @return future completed with the best trajectory with no collisions found, or with null if none was found
+     * @pre budget != null &amp;&amp; onImprovement != null
+     * @post result.join() == null || result.join().getCollisionCount() == 0
+     * @throws IllegalArgumentException if budget or onImprovement are null
+     */
+    public CompletableFuture<Trajectory> findTrajectoryAsync(Duration budget, Consumer<Trajectory> onImprovement) {
+        if (budget == null || onImprovement == null)
+            throw new IllegalArgumentException("Budget and listener cannot be null");
+        long deadline = System.nanoTime() + budget.toNanos();
+        CompletableFuture<Trajectory> result = new CompletableFuture<>();
+        pool.execute(() -> {
+            try {
+                result.complete(searchUntil(deadline, result, onImprovement));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Anytime version of the trajectory finder without a listener.
+     *
+     * @param budget wall-clock time the search may take
+     * @return future completed with the best trajectory with no collisions found, or with null if none was found
+     * @pre budget != null
+     * @see #findTrajectoryAsync(Duration, Consumer)
+     */
+    public CompletableFuture<Trajectory> findTrajectoryAsync(Duration budget) {
+        return findTrajectoryAsync(budget, trajectory -> { });
+    }
+
+    /**
+     * Search loop of the anytime trajectory finder, one generation at a time, islands migrating every migrationInterval generations.
+     *
+     * @param deadline      System.nanoTime() value at which the search stops
+     * @param result        future of the search, the search stops once it is done (e.g. cancelled)
+     * @param onImprovement listener of improved best trajectories
+     * @return the best trajectory with no collisions found, or null
+     */
+    private Trajectory searchUntil(long deadline, CompletableFuture<Trajectory> result, Consumer<Trajectory> onImprovement) {
+        Trajectory bestTrajectory = snapshot(Collections.min(allIndividuals(), QUALITY));
+        onImprovement.accept(bestTrajectory);
+        int stalled = 0;
+        for (int gen = 0; gen < MAX_GENERATIONS && !result.isDone() && System.nanoTime() < deadline
+                && (bestTrajectory.getCollisionCount() > 0 || stalled < stallGenerations); gen++) {
+            evolveIslands(1, false);
+            if (islandPopulations.length > 1 && (gen + 1) % migrationInterval == 0)
+                migrate();
+            Trajectory candidate = Collections.min(allIndividuals(), QUALITY);
+            if (QUALITY.compare(candidate, bestTrajectory) < 0) {
+                bestTrajectory = snapshot(candidate);
+                onImprovement.accept(bestTrajectory);
+                stalled = 0;
+            } else if (bestTrajectory.getCollisionCount() == 0) {
+                stalled++;
+            }
+        }
+        return bestTrajectory.getCollisionCount() > 0 ? null : bestTrajectory;
+    }
+
+    /**
+     * Copies a trajectory so that later mutations of the population do not change it.
+     *
+     * @param trajectory trajectory to copy
+     * @return a copy of the trajectory
+     * @pre trajectory != null
+     */
+    private Trajectory snapshot(Trajectory trajectory) {
+        return trajectory.copy(generator, rng);
+    }
+
+    /**
+     * @return the individuals of every island
+     */
+    private List<Trajectory> allIndividuals() {
+        List<Trajectory> individuals = new ArrayList<>();
+        for (TrajectoryPopulation islandPopulation : islandPopulations)
+            individuals.addAll(islandPopulation.getIndividuals());
+        return individuals;
+    }
+
+    /**
+     * Island model version of the trajectory finder. Every island evolves on its own thread for migrationInterval generations,
+     * then each island sends copies of its migrationSize best individuals to the next island, replacing its worst ones.
+     * This is repeated until an island finds a trajectory with no collisions or the generation limit is reached.
+     *
+     * @return best trajectory found among all islands
+     * @pre islandPopulations.length > 1
+     * @post result == null || result.getCollisionCount() == 0
+     */
+    private Trajectory findTrajectoryOnIslands() {
+        Trajectory bestTrajectory = getBestTrajectory(islandPopulations);
+        for (int gen = 0; gen < MAX_GENERATIONS && bestTrajectory.getCollisionCount() > 0; gen += migrationInterval) {
+            evolveIslands(Math.min(migrationInterval, MAX_GENERATIONS - gen), true);
+            bestTrajectory = getBestTrajectory(islandPopulations);
+            if (bestTrajectory.getCollisionCount() > 0)
+                migrate();
+        }
+        return bestTrajectory.getCollisionCount() > 0 ? null : snapshot(bestTrajectory);
+    }
+
+    /**
+     * Evolves every island for a number of generations, each island on its own thread of the pool.
+     *
+     * @param generations number of generations to evolve
+     * @param untilFound  true if each island stops as soon as it holds a trajectory with no collisions
+     * @pre generations > 0
+     * @post population == islandPopulations[0]
+     */
+    private void evolveIslands(int generations, boolean untilFound) {
+        if (islandPopulations.length == 1) {
+            islandPopulations[0] = evolveIsland(0, generations, untilFound);
+        } else {
+            List<ForkJoinTask<TrajectoryPopulation>> epochs = new ArrayList<>();
+            for (int i = 0; i < islandPopulations.length; i++) {
+                int island = i;
+                epochs.add(ForkJoinTask.adapt(() -> evolveIsland(island, generations, untilFound)));
             }
-            applyMutations(offspringIndividuals);
-            offspring = new TrajectoryPopulation(offspringIndividuals, generator, obstacles, rng);
-            bestTrajectory = getBestTrajectory(offspring);
-            population = offspring;
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(epochs)));
+            for (int i = 0; i < islandPopulations.length; i++)
+                islandPopulations[i] = epochs.get(i).join();
+        }
+        population = islandPopulations[0];
+    }
+
+    /**
+     * Evolves one island for a number of generations.
+     *
+     * @param island      index of the island
+     * @param generations number of generations to evolve
+     * @param untilFound  true if the island stops as soon as it holds a trajectory with no collisions
+     * @return the evolved population of the island
+     * @pre 0 &le; island &lt; islandPopulations.length &amp;&amp; generations > 0
+     */
+    private TrajectoryPopulation evolveIsland(int island, int generations, boolean untilFound) {
+        TrajectoryPopulation islandPopulation = islandPopulations[island];
+        for (int gen = 0; gen < generations && !(untilFound && getBestTrajectory(islandPopulation).getCollisionCount() == 0); gen++)
+            islandPopulation = nextGeneration(islandPopulation, islandGenerators[island], islandRngs[island], islandSpares.get(island));
+        return islandPopulation;
+    }
+
+    /**
+     * Ring migration, each island sends copies of its best individuals to the next island, where they replace the worst ones.
+     * The copies are bound to the random stream of the island that receives them, the individuals they replace are kept for reuse.
+     *
+     * @post every island has received migrationSize individuals from the previous island
+     */
+    private void migrate() {
+        int n = islandPopulations.length;
+        List<List<Trajectory>> emigrants = new ArrayList<>();
+        for (TrajectoryPopulation islandPopulation : islandPopulations) {
+            ArrayList<Trajectory> sorted = new ArrayList<>(islandPopulation.getIndividuals());
+            sorted.sort(Comparator.comparingDouble(Trajectory::fitness).reversed());
+            emigrants.add(sorted.subList(0, Math.min(migrationSize, sorted.size())));
+        }
+        for (int i = 0; i < n; i++) {
+            int target = (i + 1) % n;
+            ArrayList<Trajectory> residents = new ArrayList<>(islandPopulations[target].getIndividuals());
+            residents.sort(Comparator.comparingDouble(Trajectory::fitness));
+            List<Trajectory> arriving = emigrants.get(i);
+            for (int j = 0; j < arriving.size() && j < residents.size(); j++)
+                islandSpares.get(target).add(residents.set(j, arriving.get(j).copy(islandGenerators[target], islandRngs[target])));
+            islandPopulations[target] = new TrajectoryPopulation(residents, islandGenerators[target], obstacles, islandRngs[target]);
+        }
+    }
+
+    /**
+     * Performs one generation of the genetic algorithm: rank based (or tournament) selection, crossover, elitism and mutations.
+     * The population is double buffered: the offspring overwrite spare individuals, and every individual that does not
+     * make it into the next population becomes a spare, so in steady state no trajectory is allocated.
+     *
+     * @param population the current population
+     * @param generator  point generator of the population
+     * @param rng        random number generator of the population
+     * @param spares     individuals of older generations of the population, not in population
+     * @return the next population
+     * @pre population != null &amp;&amp; generator != null &amp;&amp; rng != null &amp;&amp; spares != null
+     * @post result != null &amp;&amp; spares holds the individuals of population that are not in result
+     */
+    private TrajectoryPopulation nextGeneration(TrajectoryPopulation population, PointGenerator generator, Random rng, ArrayDeque<Trajectory> spares) {
+        int numElites = (int) (0.1 * population.getIndividuals().size()); // 10% elites
+        TrajectoryPopulation offspring = tournamentSize > 0 ? population.tournamentSelection(tournamentSize) : population.rankBasedSelection();
+        ArrayList<Trajectory> offspringIndividuals = (ArrayList<Trajectory>) generateOffspring(offspring, generator, rng, spares);
+
+        // Apply elitism, the best parents take the place of the best offspring and are mutated like them
+        List<Trajectory> parents = population.getIndividuals();
+        int[] bestOffspring = TrajectoryPopulation.fittest(offspringIndividuals, numElites);
+        int[] eliteIndexes = TrajectoryPopulation.fittest(parents, numElites);
+        boolean[] isElite = new boolean[parents.size()];
+        List<Trajectory> elites = new ArrayList<>(numElites);
+        for (int i = 0; i < numElites; i++) {
+            isElite[eliteIndexes[i]] = true;
+            elites.add(parents.get(eliteIndexes[i]));
+            spares.add(offspringIndividuals.set(bestOffspring[i], elites.get(i)));
         }
-        return bestTrajectory.calculateCollisions() > 0 ? null : bestTrajectory;
+        for (int i = 0; i < parents.size(); i++)
+            if (!isElite[i])
+                spares.add(parents.get(i));
+        applyMutations(elites);
+        return new TrajectoryPopulation(offspringIndividuals, generator, obstacles, rng);
     }
 
     /**
@@ -224,42 +591,70 @@ public class Planner {
         return Collections.max(population.getIndividuals(), Comparator.comparingDouble(Trajectory::fitness));
     }
 
+    /**
+     * Gets the best trajectory based on the highest fitness value among several populations.
+     *
+     * @param populations the populations of trajectories
+     * @return the trajectory with the highest fitness value
+     * @pre populations != null &amp;&amp; populations.length > 0
+     * @post result != null
+     */
+    private Trajectory getBestTrajectory(TrajectoryPopulation[] populations) {
+        Trajectory bestTrajectory = getBestTrajectory(populations[0]);
+        for (int i = 1; i < populations.length; i++) {
+            Trajectory candidate = getBestTrajectory(populations[i]);
+            if (candidate.fitness() > bestTrajectory.fitness())
+                bestTrajectory = candidate;
+        }
+        return bestTrajectory;
+    }
+
     /**
      * Generates a new offspring population by performing crossover on the tournament winners.
+     * Parents and random seeds are drawn here, in order, and the children are then built, mutated and scored in parallel,
+     * each pair with its own random stream, so the result only depends on the seed of the planner.
      *
      * @param offspring the offspring population containing tournament winners
-     * @return a list of offspring individuals created by crossover
-     * @pre offspring != null &amp;&amp; offspring.getIndividuals().size() > 0
-     * @post result != null &amp;&amp; result.size() == offspring.getIndividuals().size()
+     * @param generator point generator of the population, whose free space the children keep to
+     * @param rng       random number generator used to pick the parents and seeds
+     * @param spares    individuals that are overwritten with the children, new ones are only created when it runs out
+     * @return a list of mutated offspring individuals created by crossover
+     * @pre offspring != null &amp;&amp; offspring.getIndividuals().size() > 0 &amp;&amp; spares != null
+     * @post result != null &amp;&amp; result.size() &ge; offspring.getIndividuals().size()
      */
-    private List<Trajectory> generateOffspring(TrajectoryPopulation offspring) {
-        ArrayList<Trajectory> tournamentWinners = (ArrayList<Trajectory>) offspring.getIndividuals();
-        ArrayList<Trajectory> offspringIndividuals = new ArrayList<>();
+    private List<Trajectory> generateOffspring(TrajectoryPopulation offspring, PointGenerator generator, Random rng, ArrayDeque<Trajectory> spares) {
+        List<Trajectory> tournamentWinners = offspring.getIndividuals();
+        int pairs = (tournamentWinners.size() + 1) / 2;
+        int[] parentIndexes = new int[2 * pairs];
+        long[] seeds = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            parentIndexes[2 * i] = rng.nextInt(tournamentWinners.size());
+            parentIndexes[2 * i + 1] = rng.nextInt(tournamentWinners.size());
+            seeds[i] = rng.nextLong();
+        }
 
         // Perform crossover on tournament winners to generate offspring
-        while (offspringIndividuals.size() < tournamentWinners.size()) {
-            int index1 = rng.nextInt(tournamentWinners.size());
-            int index2 = rng.nextInt(tournamentWinners.size());
-            Trajectory[] children = tournamentWinners.get(index1).onePointCrossover(tournamentWinners.get(index2));
-            offspringIndividuals.add(children[0]);
-            offspringIndividuals.add(children[1]);
-        }
-        return offspringIndividuals;
+        Trajectory[] children = new Trajectory[2 * pairs];
+        for (int i = 0; i < children.length; i++)
+            children[i] = spares.isEmpty() ? new Trajectory(obstacles) : spares.poll();
+        pool.invoke(new OffspringTask(tournamentWinners, generator, parentIndexes, seeds, children, pm, pa, pr, pb));
+        return new ArrayList<>(Arrays.asList(children));
     }
 
     /**
-     * Applies mutations to the given list of offspring individuals.
+     * Applies mutations to the given list of individuals.
      *
-     * @param offspringIndividuals the list of offspring individuals to mutate
-     * @pre offspringIndividuals != null &amp;&amp; offspringIndividuals.size() > 0
-     * @post All offspring individuals have had mutation, addition, and removal operations applied
+     * @param individuals the list of individuals to mutate
+     * @pre individuals != null
+     * @post All individuals have had mutation, addition, and removal operations applied
      */
-    private void applyMutations(ArrayList<Trajectory> offspringIndividuals) {
-        for (Trajectory t : offspringIndividuals) {
+    private void applyMutations(List<Trajectory> individuals) {
+        for (Trajectory t : individuals) {
             t.mutate(pm);
             t.addPoint(pa);
             t.removePoint(pr);
+            t.mutateNearObstacle(pb);
+            t.addPointNearObstacle(pb);
         }
     }
 }
-
@@ -4,13 +4,19 @@ import java.util.Random;
 
 /**
  * Class PointGenerator, used for generating random points.
+ * A generator made for a DeliveryMap only generates points in its free space, the pixels of the map outside every obstacle.
  * @author Jude Adam
  * @version 1.0.0 20/02/2023
  * @inv rng != null
  */
 public class PointGenerator {
 
+    // Occupied draws after which the standard deviation is doubled, and after which a free pixel is drawn uniformly
+    private static final int WIDEN_EVERY = 16;
+    private static final int MAX_GAUSSIAN_ATTEMPTS = 256;
+
     private final Random rng;
+    private final DeliveryMap deliveryMap;
 
     /**
      * Constructor for PointGenerator Class
@@ -19,7 +25,48 @@ public class PointGenerator {
      * @post this.rng == rng
      */
     public PointGenerator(Random rng) {
+        this(rng, null);
+    }
+
+    /**
+     * Constructor for PointGenerator Class that only generates points in the free space of a map.
+     * It always uses the map's current obstacles, so it keeps up with obstacles added later.
+     * @param rng Random number generator
+     * @param deliveryMap map whose obstacles the points must avoid, null to generate points anywhere
+     * @pre rng != null
+     * @post this.rng == rng
+     */
+    public PointGenerator(Random rng, DeliveryMap deliveryMap) {
         this.rng = rng;
+        this.deliveryMap = deliveryMap;
+    }
+
+    /**
+     * Creates a generator that uses another random stream and avoids the same obstacles.
+     * @param rng Random number generator of the new generator
+     * @return a generator with the same free space as this one
+     * @pre rng != null
+     */
+    public PointGenerator withRandom(Random rng) {
+        return new PointGenerator(rng, deliveryMap);
+    }
+
+    /**
+     * Creates a generator that uses the same random stream and only generates points in the free space of a map.
+     * @param deliveryMap map whose obstacles the points must avoid
+     * @return a generator sharing this generator's random stream
+     * @pre deliveryMap != null
+     */
+    public PointGenerator within(DeliveryMap deliveryMap) {
+        return new PointGenerator(rng, deliveryMap);
+    }
+
+    /**
+     * @param packed point packed by IntPointList.pack
+     * @return true if the point is in the free space of this generator, always true without a map
+     */
+    public boolean isFree(int packed) {
+        return deliveryMap == null || !deliveryMap.occupancy().isOccupied(IntPointList.x(packed), IntPointList.y(packed));
     }
 
     /**
@@ -34,13 +81,52 @@ public class PointGenerator {
      * @return Point object with x and y coordinates following a Gaussian distribution with mean at midpoint between start and end points and standard deviation stdDev
      */
     public Point generateGaussianPoint(double stdDev, Point start, Point end) {
-        double midX = (start.x() + end.x()) / 2.0;
-        double midY = (start.y() + end.y()) / 2.0;
-        int x, y;
-        do {
-            x = (int) (midX + this.rng.nextGaussian() * stdDev);
-            y = (int) (midY + this.rng.nextGaussian() * stdDev);
-        } while (x < 0 || x >= 1000 || y < 0 || y >= 1000);
-        return new Point(x, y);
+        return IntPointList.unpack(generatePackedGaussianPoint(stdDev, IntPointList.pack(start), IntPointList.pack(end)));
+    }
+
+    /**
+     * Generates a point like generateGaussianPoint, with the points packed by IntPointList.pack.
+     * With a map, points inside obstacles are drawn again, and the standard deviation doubles every 16 such draws so a
+     * midpoint deep inside an obstacle still finds free space quickly. After 256 draws, which only happens when there is
+     * almost no free space, the point is drawn uniformly among the free pixels of the map instead, so it is always free.
+     * A map with no free pixel at all has no point to give.
+     *
+     * @param stdDev standard deviation for Gaussian distribution
+     * @param start packed starting point for calculating midpoint
+     * @param end packed ending point for calculating midpoint
+     * @pre stdDev > 0
+     * @return packed point with x and y coordinates following a Gaussian distribution with mean at midpoint between start and end points and standard deviation stdDev
+     * @throws IllegalStateException if the map has no free pixel
+     */
+    public int generatePackedGaussianPoint(double stdDev, int start, int end) {
+        double midX = (IntPointList.x(start) + IntPointList.x(end)) / 2.0;
+        double midY = (IntPointList.y(start) + IntPointList.y(end)) / 2.0;
+        OccupancyRaster occupancy = deliveryMap == null ? null : deliveryMap.occupancy();
+        for (int attempt = 1; ; attempt++) {
+            if (occupancy != null && attempt > MAX_GAUSSIAN_ATTEMPTS)
+                return generatePackedFreePoint(occupancy);
+            int x = (int) (midX + this.rng.nextGaussian() * stdDev);
+            int y = (int) (midY + this.rng.nextGaussian() * stdDev);
+            if (x < 0 || x >= 1000 || y < 0 || y >= 1000)
+                continue;
+            if (occupancy == null || !occupancy.isOccupied(x, y))
+                return IntPointList.pack(x, y);
+            if (attempt % WIDEN_EVERY == 0)
+                stdDev *= 2;
+        }
+    }
+
+    /**
+     * Draws a point uniformly among the free pixels of a raster.
+     *
+     * @param occupancy raster of the map
+     * @return packed free point
+     * @pre occupancy != null
+     * @throws IllegalStateException if the raster has no free pixel
+     */
+    private int generatePackedFreePoint(OccupancyRaster occupancy) {
+        int free = occupancy.freePixels();
+        if (free == 0) throw new IllegalStateException("The map has no free space");
+        return occupancy.freePixel(this.rng.nextInt(free));
     }
 }
@@ -0,0 +1,136 @@
+package simulator;
+
+/**
+ * Class PointSet, a set of points packed into ints by IntPointList.pack, stored in an open addressing hash table
+ * with linear probing, so membership tests take constant time with no boxing.
+ *
+ * @inv table.length is a power of two &amp;&amp; size &lt; table.length
+ */
+public class PointSet {
+
+    // Packed points are never negative, so -1 marks an empty slot
+    private static final int EMPTY = -1;
+
+    private int[] table;
+    private int size;
+
+    /**
+     * Constructor for an empty PointSet.
+     */
+    public PointSet() {
+        this(8);
+    }
+
+    /**
+     * Constructor for an empty PointSet.
+     *
+     * @param expected number of points it can hold before growing
+     * @pre expected &ge; 0
+     */
+    public PointSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2, 4) - 1) << 1;
+        this.table = newTable(capacity);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        java.util.Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private int slot(int packed) {
+        // Fibonacci hashing spreads neighbouring points over the table
+        return (packed * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(table.length)) & (table.length - 1);
+    }
+
+    /**
+     * @param packed packed point
+     * @return true if the point is in the set
+     */
+    public boolean contains(int packed) {
+        for (int i = slot(packed); ; i = (i + 1) & (table.length - 1)) {
+            if (table[i] == packed) return true;
+            if (table[i] == EMPTY) return false;
+        }
+    }
+
+    /**
+     * Adds a point to the set.
+     *
+     * @param packed packed point
+     * @return true if the point was not in the set
+     */
+    public boolean add(int packed) {
+        if (2 * (size + 1) > table.length)
+            resize(table.length * 2);
+        int i = slot(packed);
+        while (table[i] != EMPTY) {
+            if (table[i] == packed) return false;
+            i = (i + 1) & (table.length - 1);
+        }
+        table[i] = packed;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a point from the set, moving back the points after it so no probe sequence is broken.
+     *
+     * @param packed packed point
+     * @return true if the point was in the set
+     */
+    public boolean remove(int packed) {
+        int mask = table.length - 1;
+        int i = slot(packed);
+        while (table[i] != packed) {
+            if (table[i] == EMPTY) return false;
+            i = (i + 1) & mask;
+        }
+        table[i] = EMPTY;
+        size--;
+        for (int j = (i + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(table[j]);
+            // Move the point back if its home slot is not between the hole and its current slot
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                table[j] = EMPTY;
+                i = j;
+            }
+        }
+        return true;
+    }
+
+    private void resize(int capacity) {
+        int[] old = table;
+        table = newTable(capacity);
+        size = 0;
+        for (int packed : old)
+            if (packed != EMPTY)
+                add(packed);
+    }
+
+    /**
+     * Removes every point, keeping the table for reuse.
+     */
+    public void clear() {
+        java.util.Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * @return number of points in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the set
+     */
+    public PointSet copy() {
+        PointSet result = new PointSet();
+        result.table = table.clone();
+        result.size = size;
+        return result;
+    }
+}
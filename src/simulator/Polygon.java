@@ -58,6 +58,25 @@ public class Polygon extends Shape {
                 (p.x() < (b.x() - a.x()) * (p.y() - a.y()) / (b.y() - a.y()) + a.x());
     }
 
+    /**
+     * Determines if the given position, which need not have integer coordinates, is inside the polygon using the ray
+     * casting algorithm.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return True if the position is inside the polygon
+     */
+    private boolean surrounds(double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = points.length - 1; i < points.length; j = i++) {
+            Point a = points[i];
+            Point b = points[j];
+            if ((a.y() > y) != (b.y() > y) && x < (double) (b.x() - a.x()) * (y - a.y()) / (b.y() - a.y()) + a.x())
+                inside = !inside;
+        }
+        return inside;
+    }
+
     /**
      * Determines if the shape is intercepted by the given segment.
      *
@@ -72,4 +91,46 @@ public class Polygon extends Shape {
         }
         return false;
     }
+
+    /**
+     * Calculates the length of the part of the given segment inside the polygon. The segment is cut where it crosses
+     * each side of the polygon, closing side included, and the pieces whose middle is inside the polygon are added up.
+     *
+     * @param segment Line Segment
+     * @return Length of the part of the segment inside the polygon
+     * @pre segment != null
+     */
+    @Override
+    public double penetration(LineSegment segment) {
+        double px = segment.p1().x();
+        double py = segment.p1().y();
+        double rx = segment.p2().x() - px;
+        double ry = segment.p2().y() - py;
+        double[] cuts = new double[points.length + 2];
+        int n = 0;
+        cuts[n++] = 0;
+        cuts[n++] = 1;
+        for (int i = 0; i < points.length; i++) {
+            Point q = points[i];
+            Point q2 = points[(i + 1) % points.length];
+            double sx = q2.x() - q.x();
+            double sy = q2.y() - q.y();
+            double denominator = rx * sy - ry * sx;
+            if (denominator == 0) continue; // parallel sides only touch the segment
+            double qx = q.x() - px;
+            double qy = q.y() - py;
+            double t = (qx * sy - qy * sx) / denominator;
+            double u = (qx * ry - qy * rx) / denominator;
+            if (t > 0 && t < 1 && u >= 0 && u <= 1)
+                cuts[n++] = t;
+        }
+        java.util.Arrays.sort(cuts, 0, n);
+        double inside = 0;
+        for (int i = 0; i < n - 1; i++) {
+            double middle = (cuts[i] + cuts[i + 1]) / 2;
+            if (cuts[i + 1] > cuts[i] && surrounds(px + middle * rx, py + middle * ry))
+                inside += cuts[i + 1] - cuts[i];
+        }
+        return inside * Math.sqrt(rx * rx + ry * ry);
+    }
 }
@@ -1,6 +1,10 @@
 package simulator;
 
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 /**
@@ -11,7 +15,7 @@ import java.util.Queue;
  * @inv requests != null
  */
 public class RequestQueue{
-    private final Queue<Request> requests;
+    private final Deque<Request> requests;
 
     /**
      * Constructor for the RequestQueue class.
@@ -37,6 +41,19 @@ public class RequestQueue{
         requests.add(request);
     }
 
+    /**
+     * Adds a delivery request back to the front of the queue, e.g. when the robot it was handed to could not perform it.
+     *
+     * @param request The delivery request to be added.
+     *
+     * @pre request != null
+     * @post The request is the next request of the queue.
+     */
+    public synchronized void addFirstRequest(Request request) {
+        if (request == null) throw new IllegalArgumentException("Request cannot be null");
+        requests.addFirst(request);
+    }
+
     /**
      * Retrieves the oldest delivery request from the queue without removing it.
      *
@@ -49,6 +66,23 @@ public class RequestQueue{
         return requests.peek();
     }
 
+    /**
+     * Retrieves the oldest delivery requests from the queue without removing them.
+     *
+     * @param count The most requests to retrieve.
+     * @return The oldest count delivery requests, oldest first, or every request if there are fewer.
+     *
+     * @pre count >= 0
+     * @post The queue is unchanged.
+     */
+    public synchronized List<Request> getNextRequests(int count) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        List<Request> next = new ArrayList<>(Math.min(count, requests.size()));
+        for (Iterator<Request> iterator = requests.iterator(); iterator.hasNext() && next.size() < count; )
+            next.add(iterator.next());
+        return next;
+    }
+
     /**
      * Removes the oldest delivery request from the queue.
      *
@@ -59,6 +93,26 @@ public class RequestQueue{
         requests.poll();
     }
 
+    /**
+     * Removes the given delivery request from the queue, wherever it is.
+     * Requests are told apart by identity, so of two equal requests only the given one is removed.
+     *
+     * @param request The delivery request to be removed.
+     * @return True if the request was in the queue, false otherwise.
+     *
+     * @pre None.
+     * @post The request is no longer in the queue, the order of the others is unchanged.
+     */
+    public synchronized boolean removeRequest(Request request) {
+        for (Iterator<Request> iterator = requests.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == request) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks whether the queue is empty.
      *
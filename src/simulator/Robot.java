@@ -3,17 +3,22 @@ package simulator;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * A robot that can move around and deliver packages on a delivery map.
  * The robot can recharge at its charging point and must return to it
  * periodically to avoid running out of power.
+ * Trajectories are planned on a planner executor, while planning the robot waits in the PLANNING state.
  *
  * @author Jude Adam
  * @version 1.0.0 20/04/2023
  * @inv A robot's battery level must always be between 0 and 100.
  * @inv If a robot's battery level drops to 0, it must return to its charging point to recharge.
- * @inv currentPosition, deliveryMap, generator, chargingStation, trajectoryCache, and rng must not be null.
+ * @inv currentPosition, deliveryMap, generator, chargingStation, plannerExecutor and rng must not be null.
+ * @inv powerState == PLANNING if and only if pendingPlan != null
  * @inv currentPosition and chargingStation must be within the deliveryMap.
  */
 public class Robot {
@@ -21,22 +26,26 @@ public class Robot {
     private static final double ENERGY_CONSUMPTION_STANDBY = 0.001;
     private static final double ENERGY_CHARGE_RATE = 1.0;
     private static final double ENERGY_CONSUMPTION_DELIVERING = 0.1;
+    // Planned trajectories are assumed to be at most this many times as long as their estimates, which are straight lines and the charging station field
+    private static final double SAFETY_MARGIN = 1.5;
     private final Random rng;
     private Point currentPosition;
     private final PointGenerator generator;
     protected double energy;
     private RobotPowerState powerState;
     private final Point chargingStation;
-    private Iterator<Point> trajectoryPointIterator;
+    private PathCursor pathCursor;
     private RobotManager manager;
+    private final Executor plannerExecutor;
+    private final PathPlanner pathPlanner;
+    private final PathPlanner shortestPathPlanner;
+    private CompletableFuture<Trajectory> pendingPlan;
+    private RobotPowerState plannedState;
 
-    private final Map<String, Trajectory> trajectoryCache;
     private final DeliveryMap deliveryMap;
 
-    private static final int CACHE_SIZE = 100;
-
     /**
-     * Robot Constructor
+     * Robot Constructor, trajectories are planned on the thread that updates the robot
      *
      * @param startingPoint the starting point of the robot
      * @param deliveryMap   the delivery map that the robot will navigate through
@@ -46,7 +55,38 @@ public class Robot {
      * @post A Robot object is created with the provided starting point, delivery map, and generator
      */
     public Robot(Point startingPoint, DeliveryMap deliveryMap, PointGenerator generator, Random rng) {
-        if (startingPoint == null || deliveryMap == null || generator == null)
+        this(startingPoint, deliveryMap, generator, rng, Runnable::run);
+    }
+
+    /**
+     * Robot Constructor, trajectories are planned with a genetic algorithm
+     *
+     * @param startingPoint   the starting point of the robot
+     * @param deliveryMap     the delivery map that the robot will navigate through
+     * @param generator       the random number generator used to generate trajectory lengths
+     * @param plannerExecutor the executor where the robot's trajectories are planned
+     * @throws IllegalArgumentException if any of the input parameters are null
+     * @pre startingPoint, deliveryMap, generator and plannerExecutor must be non-null
+     * @post A Robot object is created with the provided starting point, delivery map, generator and planner executor
+     */
+    public Robot(Point startingPoint, DeliveryMap deliveryMap, PointGenerator generator, Random rng, Executor plannerExecutor) {
+        this(startingPoint, deliveryMap, generator, rng, plannerExecutor, new GeneticPathPlanner(deliveryMap, generator, rng));
+    }
+
+    /**
+     * Robot Constructor
+     *
+     * @param startingPoint   the starting point of the robot
+     * @param deliveryMap     the delivery map that the robot will navigate through
+     * @param generator       the random number generator used to generate trajectory lengths
+     * @param plannerExecutor the executor where the robot's trajectories are planned
+     * @param pathPlanner     the planner of the robot's trajectories
+     * @throws IllegalArgumentException if any of the input parameters are null
+     * @pre startingPoint, deliveryMap, generator, plannerExecutor and pathPlanner must be non-null
+     * @post A Robot object is created with the provided starting point, delivery map, generator, planner executor and path planner
+     */
+    public Robot(Point startingPoint, DeliveryMap deliveryMap, PointGenerator generator, Random rng, Executor plannerExecutor, PathPlanner pathPlanner) {
+        if (startingPoint == null || deliveryMap == null || generator == null || plannerExecutor == null || pathPlanner == null)
             throw new IllegalArgumentException("Can't be constructed with null arguments");
         this.currentPosition = startingPoint;
         this.deliveryMap = deliveryMap;
@@ -54,14 +94,10 @@ public class Robot {
         this.chargingStation = startingPoint;
         this.energy = 100.00;
         this.powerState = RobotPowerState.STANDBY;
-        this.trajectoryPointIterator = null;
-        //Cache for robot to remember up to CACHE_SIZE trajectories, by defaut it is 100
-        this.trajectoryCache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, Trajectory> eldest) {
-                return size() > CACHE_SIZE;
-            }
-        };
+        this.pathCursor = null;
+        this.plannerExecutor = plannerExecutor;
+        this.pathPlanner = pathPlanner;
+        this.shortestPathPlanner = new GridPathPlanner(deliveryMap, generator, rng);
         this.rng = rng;
     }
 
@@ -112,10 +148,89 @@ public class Robot {
             case RETURNING, ENROUTE -> handleMovingState();
             case STANDBY -> handleStandbyState();
             case CHARGING -> handleChargingState();
+            case PLANNING -> handlePlanningState();
             default -> throw new IllegalStateException("Unexpected power state: " + powerState);
         }
     }
 
+    /**
+     * Counts the coming updates that would only change the robot's energy, and its position along its path, without
+     * changing its power state, notifying the manager or planning: moves before the last pixel of a path, charging
+     * before the battery is full, and waiting on standby while the energy left is above the estimated way home with
+     * its safety margin.
+     * A robot on standby at its charging station is quiet for as long as nothing is assigned to it.
+     *
+     * @param limit maximum number of updates to count
+     * @return number of quiet updates from now, at most limit
+     * @pre limit &ge; 0
+     * @post skipTicks(return) leaves the robot as return calls to update() would
+     */
+    int quietTicks(int limit) {
+        double e = energy;
+        int ticks = 0;
+        switch (powerState) {
+            case DELIVERING, RETURNING, ENROUTE -> {
+                double consumption = powerState == RobotPowerState.DELIVERING ? ENERGY_CONSUMPTION_DELIVERING : ENERGY_CONSUMPTION_ENROUTE;
+                // The update that moves to the last pixel is the one that arrives
+                int moves = Math.min(limit, pathCursor.remaining() - 1);
+                for (; ticks < moves && (int) e >= 0; ticks++)
+                    e -= consumption;
+            }
+            case STANDBY -> {
+                if (currentPosition.equals(chargingStation))
+                    return limit;
+                double home = SAFETY_MARGIN * estimatedDistanceToChargingStation(currentPosition);
+                for (; ticks < limit && (int) e >= 0; ticks++) {
+                    e -= ENERGY_CONSUMPTION_STANDBY;
+                    if (e / ENERGY_CONSUMPTION_ENROUTE <= home)
+                        break;
+                }
+            }
+            case CHARGING -> {
+                for (; ticks < limit && (int) e >= 0 && e < 100.0; ticks++)
+                    e = Math.min(100.0, e + ENERGY_CHARGE_RATE);
+            }
+            default -> {
+                // Planning robots wait for a plan that may be ready on any update
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * Applies quiet updates at once, with the same arithmetic as update(), so the energy is the same to the last bit.
+     * The robot only steps along its path here, its position is set once at the end.
+     *
+     * @param ticks number of updates to apply
+     * @pre 0 &le; ticks &le; quietTicks(ticks)
+     * @post the robot is as it would be after ticks calls to update()
+     */
+    void skipTicks(int ticks) {
+        switch (powerState) {
+            case DELIVERING, RETURNING, ENROUTE -> {
+                double consumption = powerState == RobotPowerState.DELIVERING ? ENERGY_CONSUMPTION_DELIVERING : ENERGY_CONSUMPTION_ENROUTE;
+                for (int i = 0; i < ticks; i++) {
+                    energy -= consumption;
+                    pathCursor.advance();
+                }
+                if (ticks > 0 && (pathCursor.x() != currentPosition.x() || pathCursor.y() != currentPosition.y()))
+                    this.currentPosition = new Point(pathCursor.x(), pathCursor.y());
+            }
+            case STANDBY -> {
+                if (!currentPosition.equals(chargingStation))
+                    for (int i = 0; i < ticks; i++)
+                        energy -= ENERGY_CONSUMPTION_STANDBY;
+            }
+            case CHARGING -> {
+                for (int i = 0; i < ticks; i++)
+                    energy = Math.min(100.0, energy + ENERGY_CHARGE_RATE);
+            }
+            default -> {
+                if (ticks > 0) throw new IllegalStateException("Planning robots have no quiet updates");
+            }
+        }
+    }
+
     /**
      * Handles the logic for when the robot is in the moving state (ENROUTE or RETURNING).
      *
@@ -142,13 +257,18 @@ public class Robot {
     /**
      * Handles the logic for when the robot is in the STANDBY state.
      *
+     * The robot leaves for its charging station once the energy left is only enough for the estimated way home with its
+     * safety margin, which is looked up without planning. Only then is the trajectory home planned, on the planner
+     * executor. If no trajectory home was found, it is planned again on the next update.
+     *
      * @pre Robot must be in STANDBY state
      * @post Updates energy consumption and checks if the robot needs to go to the charging station
      */
     private void handleStandbyState() {
         if (!this.currentPosition.equals(chargingStation)) {
             energy -= ENERGY_CONSUMPTION_STANDBY;
-            if (energy / ENERGY_CONSUMPTION_ENROUTE <= distanceToChargingStation()) {
+            double range = energy / ENERGY_CONSUMPTION_ENROUTE;
+            if (range <= SAFETY_MARGIN * estimatedDistanceToChargingStation(currentPosition)) {
                 this.goToChargingStation();
             }
         }
@@ -170,6 +290,70 @@ public class Robot {
     }
 
 
+    /**
+     * Handles the logic for when the robot is in the PLANNING state.
+     *
+     * @pre Robot must be in PLANNING state
+     * @post Updates energy consumption and, once the plan is ready, follows it in the planned state
+     */
+    private void handlePlanningState() {
+        energy -= ENERGY_CONSUMPTION_STANDBY;
+        followPlanIfReady();
+    }
+
+    /**
+     * Plans a trajectory on the planner executor and waits for it in the PLANNING state.
+     * If the plan is ready right away (e.g. when planning on the robot's own thread), it is followed immediately.
+     *
+     * @param start        the starting point of the trajectory
+     * @param destination  the destination point of the trajectory
+     * @param plannedState the state the robot takes once it follows the trajectory
+     * @pre start != null &amp;&amp; destination != null &amp;&amp; plannedState != null
+     * @post powerState == PLANNING || powerState == plannedState || powerState == STANDBY
+     */
+    private void planPath(Point start, Point destination, RobotPowerState plannedState) {
+        planPath(() -> getTrajectory(start, destination), plannedState);
+    }
+
+    /**
+     * Plans a trajectory on the planner executor with the given planner and waits for it in the PLANNING state.
+     *
+     * @param planner      plans the trajectory, may return null if no trajectory is found
+     * @param plannedState the state the robot takes once it follows the trajectory
+     * @pre planner != null &amp;&amp; plannedState != null
+     * @post powerState == PLANNING || powerState == plannedState || powerState == STANDBY
+     */
+    private void planPath(Supplier<Trajectory> planner, RobotPowerState plannedState) {
+        this.plannedState = plannedState;
+        this.pendingPlan = CompletableFuture.supplyAsync(planner, plannerExecutor);
+        this.powerState = RobotPowerState.PLANNING;
+        manager.notify(this, this.powerState);
+        followPlanIfReady();
+    }
+
+    /**
+     * Follows the pending plan if it is ready. If no trajectory was found, the robot goes back to STANDBY, and hands its
+     * request back to the manager if the trajectory was for one.
+     *
+     * @pre powerState == PLANNING
+     * @post pendingPlan == null || !pendingPlan.isDone()
+     */
+    private void followPlanIfReady() {
+        if (!pendingPlan.isDone())
+            return;
+        Trajectory trajectory = pendingPlan.join();
+        pendingPlan = null;
+        if (trajectory == null) {
+            if (plannedState == RobotPowerState.ENROUTE || plannedState == RobotPowerState.DELIVERING)
+                manager.planFailed(this);
+            this.powerState = RobotPowerState.STANDBY;
+        } else {
+            setPath(trajectory);
+            this.powerState = plannedState;
+        }
+        manager.notify(this, this.powerState);
+    }
+
     /**
      * Determines whether the robot can reach the charging station from its current position without running out of energy.
      *
@@ -217,7 +401,7 @@ public class Robot {
     public void setPath(Trajectory trajectory) {
         if (trajectory == null)
             throw new IllegalArgumentException("Trajectory cannot be null");
-        this.trajectoryPointIterator = trajectory.calculatePointsAlongTrajectory().iterator();
+        this.pathCursor = trajectory.cursor();
         this.powerState = RobotPowerState.DELIVERING;
         manager.notify(this, this.powerState);
     }
@@ -243,34 +427,32 @@ public class Robot {
      * Moves the robot to the next position in the trajectory. If the robot has reached its destination, it changes its
      * power state to CHARGING if it was RETURNING, or to STANDBY if it was DELIVERING, and notifies the manager.
      *
-     * @pre trajectoryPointIterator must be non-null
+     * @pre pathCursor must be non-null
      * @post The robot's position is updated based on the trajectory, and its power state is updated if it reaches its destination
      */
     private void moveToNextPosition() {
         //Move to next point
-        if (this.trajectoryPointIterator.hasNext()) {
-            Point previousPosition = currentPosition.clone();
-            this.currentPosition = trajectoryPointIterator.next();
+        if (this.pathCursor.hasNext()) {
+            pathCursor.advance();
             //Check if robot move more than 1 pixel
-            if (Math.abs(currentPosition.x() - previousPosition.x()) > 1 || Math.abs(currentPosition.y() - previousPosition.y()) > 1)
+            if (Math.abs(pathCursor.x() - currentPosition.x()) > 1 || Math.abs(pathCursor.y() - currentPosition.y()) > 1)
                 throw new IllegalStateException("Robot can't move more than one pixel at a time");
+            if (pathCursor.x() != currentPosition.x() || pathCursor.y() != currentPosition.y())
+                this.currentPosition = new Point(pathCursor.x(), pathCursor.y());
         }
         //Check if arrives at destination
-        if (!this.trajectoryPointIterator.hasNext()) {
+        if (!this.pathCursor.hasNext()) {
             switch (powerState) {
                 case RETURNING -> this.powerState = RobotPowerState.CHARGING;
                 case DELIVERING -> {
                     this.powerState = RobotPowerState.STANDBY;
+                    manager.delivered(this);
                     manager.notify(this, this.powerState);
                 }
                 case ENROUTE -> {
                     Request currentRequest = manager.getCurrentRequest(this);
-                    if (currentRequest != null) {
-                        Trajectory trajectoryFromStartToEnd = getTrajectory(currentPosition, currentRequest.end());
-                        setPath(trajectoryFromStartToEnd);
-                        this.powerState = RobotPowerState.DELIVERING;
-                        manager.notify(this, this.powerState);
-                    }
+                    if (currentRequest != null)
+                        planPath(currentPosition, currentRequest.end(), RobotPowerState.DELIVERING);
                 }
                 default -> throw new IllegalStateException("How is this possible");
             }
@@ -282,16 +464,40 @@ public class Robot {
      * power state to CHARGING if it was RETURNING, or to STANDBY if it was DELIVERING, and notifies the manager.
      *
      * @pre The robot's energy level must be sufficient to reach the charging station
-     * @post The robot's trajectory is set to reach the charging station, and its power state is set to RETURNING
+     * @post The robot plans a trajectory to the charging station, and its power state is set to RETURNING once it is planned
      */
     private void goToChargingStation() {
-        setPath(getTrajectory(currentPosition, chargingStation));
-        this.powerState = RobotPowerState.RETURNING;
-        manager.notify(this, this.powerState);
+        Point start = currentPosition;
+        double range = energy / ENERGY_CONSUMPTION_ENROUTE;
+        planPath(() -> planWayHome(start, range), RobotPowerState.RETURNING);
     }
 
     /**
-     * Finds a trajectory (if it hasn't already been found), between the start and destination points using the provided planner.
+     * Plans the trajectory home. A planned trajectory longer than the range left, which the genetic algorithm may give
+     * since it stops at the first trajectory with no collisions, is replaced by the shortest path over the pixels. That
+     * path is about as long as the coarse distance field to the station, so the robot leaving with the estimated way
+     * home stretched by the safety margin gets home. If there is no such path, the trajectory is planned once more
+     * past the cache. A trajectory home longer than the range left is never given, the robot would run out of energy
+     * on the way.
+     *
+     * @param start the point the robot leaves from
+     * @param range the distance the robot can still travel
+     * @return the trajectory home, or null if none within range was found
+     * @pre start != null
+     */
+    private Trajectory planWayHome(Point start, double range) {
+        Trajectory trajectory = getTrajectory(start, chargingStation);
+        if (trajectory != null && trajectory.getLength() <= range)
+            return trajectory;
+        Trajectory shortest = shortestPathPlanner.plan(start, chargingStation);
+        if (shortest != null && shortest.getLength() <= range)
+            return shortest;
+        Trajectory replanned = pathPlanner.plan(start, chargingStation);
+        return replanned != null && replanned.getLength() <= range ? replanned : null;
+    }
+
+    /**
+     * Finds a trajectory (if it hasn't already been found by any robot on the map), between the start and destination points using the robot's path planner.
      *
      * @param start       the starting point of the trajectory
      * @param destination the destination point of the trajectory
@@ -303,20 +509,12 @@ public class Robot {
     public Trajectory getTrajectory(Point start, Point destination) {
         if (start == null || destination == null)
             throw new IllegalArgumentException("Start and destination points cannot be null");
-        String cacheKey = start + "-" + destination;
-        Trajectory cachedTrajectory = trajectoryCache.get(cacheKey);
-        if (cachedTrajectory != null) {
-            return cachedTrajectory;
-        }
-        int[] lengths = rng.ints(200, 0, 2).toArray();
-        Planner planner = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(destination).lengths(lengths).generator(generator).obstacles(deliveryMap.obstacles()).rng(rng).build();
-        Trajectory trajectory = planner.findTrajectory();
-        trajectoryCache.put(cacheKey, trajectory);
-        return trajectory;
+        return deliveryMap.trajectoryCache().computeIfAbsent(start, destination, () -> pathPlanner.plan(start, destination));
     }
 
     /**
      * Determines if the robot can perform the given request.
+     * The energy needed is estimated without planning.
      *
      * @param request the request to check if the robot can perform
      * @return true if the robot can perform the request, false otherwise
@@ -324,52 +522,76 @@ public class Robot {
      * @post Returns true if the robot can perform the request, false otherwise
      */
     public boolean canPerformRequest(Request request) {
-        if (request == null) {
-            return false;
-        }
+        return request != null && energy > energyToPerformRequest(request, currentPosition);
+    }
 
+    /**
+     * Estimates the energy the robot needs to perform the given request from a position and go back to charge, without
+     * planning: straight lines to the start and on to the end, and the estimated way back to the charging station,
+     * all stretched by the safety margin. It only reads what does
+     * not change while the robot is updated, so it can run on another thread than the one updating the robot.
+     *
+     * @param request  the request to perform
+     * @param position the position the robot starts from
+     * @return the estimated energy needed
+     * @pre request != null &amp;&amp; position != null
+     */
+    double energyToPerformRequest(Request request, Point position) {
         Point startPoint = request.start();
         Point endPoint = request.end();
 
-        // Check if a trajectory disregarding collisions (straight lines) would be possible given the current energy
-        double euclideanDistanceToStart = getCurrentPosition().dist(startPoint);
-        double euclideanDistanceStartToEnd = startPoint.dist(endPoint);
-        double euclideanDistanceEndToChargingStation = endPoint.dist(getChargingStation());
-
-        double minimumEnergyToPerformRequestAndGoBackToCharge = euclideanDistanceStartToEnd * ENERGY_CONSUMPTION_DELIVERING + (euclideanDistanceToStart + euclideanDistanceEndToChargingStation) * ENERGY_CONSUMPTION_ENROUTE;
+        double distanceToStart = position.dist(startPoint);
+        double distanceStartToEnd = startPoint.dist(endPoint);
+        double distanceEndToChargingStation = estimatedDistanceToChargingStation(endPoint);
 
-        if (energy <= minimumEnergyToPerformRequestAndGoBackToCharge)
-            return false;
-
-        // Check if a trajectory now with collisions in mind (planned trajectories) would be possible given the current energy
-        double distanceToStart = distanceToDestination(currentPosition, startPoint);
-        double distanceStartToEnd = distanceToDestination(startPoint, endPoint);
-        double distanceEndToChargingStation = distanceToDestination(endPoint, chargingStation);
+        return SAFETY_MARGIN * (distanceStartToEnd * ENERGY_CONSUMPTION_DELIVERING + (distanceToStart + distanceEndToChargingStation) * ENERGY_CONSUMPTION_ENROUTE);
+    }
 
-        double energyToPerformRequestAndGoBackToCharge = distanceStartToEnd * ENERGY_CONSUMPTION_DELIVERING + (distanceToStart + distanceEndToChargingStation) * ENERGY_CONSUMPTION_ENROUTE;
+    /**
+     * Calculates the energy the robot needs to follow planned trajectories to the start of a request and on to its end,
+     * and go back to charge along the estimated way home stretched by the safety margin.
+     *
+     * @param request              the request to perform
+     * @param trajectoryToStart    the trajectory to the start of the request
+     * @param trajectoryStartToEnd the trajectory from the start to the end of the request
+     * @return the energy needed
+     * @pre request != null &amp;&amp; trajectoryToStart != null &amp;&amp; trajectoryStartToEnd != null
+     */
+    double energyToPerformRequest(Request request, Trajectory trajectoryToStart, Trajectory trajectoryStartToEnd) {
+        double distanceEndToChargingStation = SAFETY_MARGIN * estimatedDistanceToChargingStation(request.end());
+        return trajectoryStartToEnd.getLength() * ENERGY_CONSUMPTION_DELIVERING + (trajectoryToStart.getLength() + distanceEndToChargingStation) * ENERGY_CONSUMPTION_ENROUTE;
+    }
 
-        return energy > energyToPerformRequestAndGoBackToCharge;
+    /**
+     * Estimates the length of the way from a point to the robot's charging station without planning, as the longest of
+     * the straight line and the map's distance field to the station, which goes around the obstacles.
+     *
+     * @param p the point
+     * @return the estimated distance to the charging station
+     * @pre p != null
+     */
+    private double estimatedDistanceToChargingStation(Point p) {
+        double distance = p.dist(chargingStation);
+        double field = deliveryMap.chargingStationField(chargingStation).anyAngleDistance(p);
+        // Points the raster cuts off from the station are left to the straight line
+        return Double.isInfinite(field) ? distance : Math.max(distance, field);
     }
 
     /**
-     * Assigns a delivery request to the robot and sets its path to the start point of the request.
-     * The robot's power state is set to ENROUTE, and the manager is notified of the change in power state.
+     * Assigns a delivery request to the robot and plans its path to the start point of the request.
+     * The robot's power state is set to ENROUTE once the path is planned, and the manager is notified of every change in power state.
      *
      * @param request The delivery request to be assigned to the robot.
      * @pre request must not be null.
-     * @post The robot's path is set to the start point of the request.
-     * The robot's power state is set to ENROUTE.
+     * @post The robot's path to the start point of the request is being planned or has been set.
+     * The robot's power state is PLANNING, or ENROUTE if the path was already planned.
      * The manager is notified of the change in power state.
      */
     public void assignRequest(Request request) {
         if (request == null) {
             throw new IllegalArgumentException("Request cannot be null");
         }
-        Point startPoint = request.start();
-        Trajectory trajectoryToStart = getTrajectory(currentPosition, startPoint);
-        setPath(trajectoryToStart);
-        this.powerState = RobotPowerState.ENROUTE;
-        manager.notify(this, this.powerState);
+        planPath(currentPosition, request.start(), RobotPowerState.ENROUTE);
     }
 
 
@@ -1,26 +1,51 @@
 package simulator;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * The RobotManager class manages a list of Robots and handles incoming delivery requests.
  * It subscribes to each robot and sends them new delivery requests as they come in. It also keeps track of
  * the status of each robot and reports this information to the SimulatorUI.
+ * The search for the robot that will perform a request is done on a planner executor, so planning does not block updates.
+ * The search only reads a snapshot of the position and energy of each waiting robot, taken on the thread updating the
+ * manager, and its answer is checked again against the robot's energy when it is applied, since the robot keeps
+ * using energy while it waits. When the planner executor is not the updating thread, the robots' random number
+ * generators are drawn from by several threads, in an order that depends on their timing.
+ * Every request a robot delivers is forgotten and handed to the delivery listener.
+ * In BATCH dispatch mode, each update takes as many of the oldest requests as there are waiting robots and pairs them
+ * with the Hungarian algorithm over the straight line distance each robot would travel, pairs the robot cannot afford
+ * energy wise left out, so that as many requests as possible are handed out at once for the least total travel.
  *
  * @author Jude Adam
  * @version 1.0.0 20/04/2023
- * @inv subscribers, requests, and distanceSortedSubscribers must not be null.
+ * @inv subscribers, requests, distanceSortedSubscribers, plannerExecutor and dispatchMode must not be null.
  * @inv All robots in subscribers must initially be subscribed to this RobotManager.
  * @inv All robots in distanceSortedSubscribers must be in subscribers.
  * @inv Robots in distanceSortedSubscribers must be sorted by their distance to the next request.
  */
 public class RobotManager {
+    /**
+     * Most requests handed out by one update in BATCH dispatch mode.
+     */
+    public static final int BATCH_WINDOW = 16;
+
     private final Set<Robot> subscribers;
     private final RequestQueue requests;
     private final Map<Robot, Request> currentRequests;
+    private final Executor plannerExecutor;
+    private final DispatchMode dispatchMode;
+    private CompletableFuture<RobotBestTrajectory> pendingDispatch;
+    private CompletableFuture<BatchDispatch> pendingBatch;
+    private Consumer<Request> deliveryListener = request -> { };
+    // Requests turned down in a row since the waiting robots changed, and the size of the queue when it last happened
+    private int turnedDown;
+    private int turnedDownQueueSize;
 
     /**
-     * Constructor for RobotManager.
+     * Constructor for RobotManager, robots are searched for on the thread that updates the manager.
      *
      * @param robots   An ArrayList of robots that will subscribe to the RobotManager.
      * @param requests A RequestQueue containing the delivery requests.
@@ -28,9 +53,38 @@ public class RobotManager {
      * @post A new RobotManager is created with the given robots and requests.
      */
     public RobotManager(Set<Robot> robots, RequestQueue requests) {
-        if (robots == null || requests == null)
+        this(robots, requests, Runnable::run);
+    }
+
+    /**
+     * Constructor for RobotManager.
+     *
+     * @param robots          An ArrayList of robots that will subscribe to the RobotManager.
+     * @param requests        A RequestQueue containing the delivery requests.
+     * @param plannerExecutor The executor where the robot that will perform each request is searched for.
+     * @pre robots, requests and plannerExecutor must not be null.
+     * @post A new RobotManager is created with the given robots, requests and planner executor.
+     */
+    public RobotManager(Set<Robot> robots, RequestQueue requests, Executor plannerExecutor) {
+        this(robots, requests, plannerExecutor, DispatchMode.GREEDY);
+    }
+
+    /**
+     * Constructor for RobotManager.
+     *
+     * @param robots          An ArrayList of robots that will subscribe to the RobotManager.
+     * @param requests        A RequestQueue containing the delivery requests.
+     * @param plannerExecutor The executor where the robots that will perform the requests are searched for.
+     * @param dispatchMode    How the requests are handed to the waiting robots.
+     * @pre robots, requests, plannerExecutor and dispatchMode must not be null.
+     * @post A new RobotManager is created with the given robots, requests, planner executor and dispatch mode.
+     */
+    public RobotManager(Set<Robot> robots, RequestQueue requests, Executor plannerExecutor, DispatchMode dispatchMode) {
+        if (robots == null || requests == null || plannerExecutor == null || dispatchMode == null)
             throw new IllegalArgumentException("Can't be constructed with null arguments");
         this.requests = requests;
+        this.plannerExecutor = plannerExecutor;
+        this.dispatchMode = dispatchMode;
         for (Robot robot : robots)
             robot.subscribeToManager(this);
         this.subscribers = new LinkedHashSet<>(robots);
@@ -56,16 +110,52 @@ public class RobotManager {
 
 
     /**
-     * Simple record class to pair a robot and a trajectory for better code reabdability.
+     * Simple record class to pair a robot and what it was checked with for better code reabdability.
+     *
+     * @param request        the request that was searched for
+     * @param bestRobot      the robot that will perform the request, null if there is none
+     * @param position       the position the robot was checked from
+     * @param requiredEnergy the energy the robot needs to perform the request from there
+     * @param planFailed     whether a trajectory could not be planned during the search
+     */
+    private record RobotBestTrajectory(Request request, Robot bestRobot, Point position, double requiredEnergy, boolean planFailed) { }
+
+    /**
+     * Position and energy of a waiting robot, taken on the thread updating the manager before a search.
      *
-     * @param bestRobot
-     * @param bestTrajectory
+     * @param robot    the robot
+     * @param position its position
+     * @param energy   its energy
      */
-    private record RobotBestTrajectory(Robot bestRobot, Trajectory bestTrajectory) { }
+    private record RobotSnapshot(Robot robot, Point position, double energy) {
+        private RobotSnapshot(Robot robot) {
+            this(robot, robot.getCurrentPosition(), robot.getEnergy());
+        }
+    }
+
+    /**
+     * A request handed to a robot by a batch dispatch.
+     *
+     * @param robot          the robot that will perform the request
+     * @param request        the request
+     * @param position       the position the robot was checked from
+     * @param requiredEnergy the energy the robot needs to perform the request from there
+     */
+    private record Assignment(Robot robot, Request request, Point position, double requiredEnergy) { }
+
+    /**
+     * Outcome of a batch dispatch.
+     *
+     * @param assignments the requests handed out, in the order of the queue
+     * @param unreachable the requests no waiting robot can reach, in the order of the queue
+     * @param planFailed  whether a trajectory could not be planned during the pairing
+     */
+    private record BatchDispatch(List<Assignment> assignments, List<Request> unreachable, boolean planFailed) { }
 
     /**
      * Update the subscribers with the latest delivery requests.
-     * If a robot can reach a delivery request, it will be assigned to that robot.
+     * The search for a robot that can reach the next request runs on the planner executor, and its result is used on
+     * the first update after it is done. If a robot can reach the delivery request, it will be assigned to that robot.
      * If no robot can reach the request, the request will be moved to the end of the queue.
      *
      * @pre None.
@@ -73,67 +163,255 @@ public class RobotManager {
      * Unreachable requests are moved to the end of the queue.
      */
     public void update() {
-        if (!subscribers.isEmpty() && !requests.isEmpty()) {
+        if (dispatchMode == DispatchMode.BATCH) {
+            updateBatch();
+            return;
+        }
+        if (pendingDispatch == null) {
+            if (subscribers.isEmpty() || requests.isEmpty())
+                return;
             Request nextRequest = requests.getNextRequest();
             PriorityQueue<Robot> sortedSubscribers = new PriorityQueue<>(Comparator.comparingDouble(Robot::getDistanceToNextRequest));
             sortedSubscribers.addAll(subscribers);
-            RobotBestTrajectory robotBestTrajectory = findBestRobotAndTrajectory(nextRequest, sortedSubscribers);
+            List<RobotSnapshot> snapshots = sortedSubscribers.stream().map(RobotSnapshot::new).toList();
+            pendingDispatch = CompletableFuture.supplyAsync(() -> findBestRobotAndTrajectory(nextRequest, snapshots), plannerExecutor);
+        }
+        if (!pendingDispatch.isDone())
+            return;
+        RobotBestTrajectory robotBestTrajectory = pendingDispatch.join();
+        pendingDispatch = null;
+        Request nextRequest = requests.getNextRequest();
+        // A request handed back meanwhile went before the one searched for, the next update searches again
+        if (nextRequest != robotBestTrajectory.request())
+            return;
 
-            // If there is a robot that can reach the request
-            if (robotBestTrajectory.bestRobot() != null) {
+        // If there is a robot that can reach the request, and it is still waiting for one with enough energy
+        if (robotBestTrajectory.bestRobot() != null) {
+            if (isStillAble(robotBestTrajectory.bestRobot(), robotBestTrajectory.position(), robotBestTrajectory.requiredEnergy()))
                 assignRequestToRobot(robotBestTrajectory.bestRobot(), nextRequest);
+        }
+        // If no robot can reach the request's destination, send the request to the end of the queue
+        else {
+            moveToQueueEnd(nextRequest);
+            turnedDown(1, robotBestTrajectory.planFailed());
+        }
+    }
+
+    /**
+     * Update the subscribers with a window of the oldest delivery requests, in BATCH dispatch mode.
+     * The window holds as many requests as there are waiting robots, at most BATCH_WINDOW, so requests are still
+     * handed out oldest first and only who performs which is chosen. The pairing runs on the planner executor, and is
+     * applied on the first update after it is done, to the robots still waiting. Requests no robot could reach are
+     * moved to the end of the queue, in the order they were in.
+     *
+     * @pre dispatchMode == DispatchMode.BATCH
+     * @post Robots are assigned delivery requests if they can reach them.
+     * Unreachable requests are moved to the end of the queue.
+     */
+    private void updateBatch() {
+        if (pendingBatch == null) {
+            if (subscribers.isEmpty() || requests.isEmpty())
+                return;
+            List<Request> window = requests.getNextRequests(batchWindow());
+            List<RobotSnapshot> robots = subscribers.stream().map(RobotSnapshot::new).toList();
+            pendingBatch = CompletableFuture.supplyAsync(() -> assignBatch(window, robots), plannerExecutor);
+        }
+        if (!pendingBatch.isDone())
+            return;
+        BatchDispatch dispatch = pendingBatch.join();
+        pendingBatch = null;
+
+        for (Assignment assignment : dispatch.assignments()) {
+            // The robot may have left or used up its energy while the pairing was under way, its request then stays where it is
+            if (isStillAble(assignment.robot(), assignment.position(), assignment.requiredEnergy())) {
+                currentRequests.put(assignment.robot(), assignment.request());
+                assignment.robot().assignRequest(assignment.request());
+                requests.removeRequest(assignment.request());
+            }
+        }
+        for (Request request : dispatch.unreachable()) {
+            requests.removeRequest(request);
+            requests.addRequest(request);
+        }
+        // With no pair at all, every request of the window was turned down
+        if (dispatch.assignments().isEmpty())
+            turnedDown(dispatch.unreachable().size(), dispatch.planFailed());
+    }
+
+    /**
+     * @return number of requests in the next window of a batch dispatch
+     */
+    private int batchWindow() {
+        return Math.min(BATCH_WINDOW, Math.min(subscribers.size(), requests.size()));
+    }
+
+    /**
+     * Records requests turned down by the waiting robots, counting on from the last ones if the queue is the same size.
+     * Failed plans are planned again after a few lookups and may succeed then, so a search in which a plan failed
+     * starts the count over.
+     *
+     * @param count      number of requests turned down
+     * @param planFailed whether a trajectory could not be planned during the search
+     * @post turnedDownQueueSize == requests.size()
+     */
+    private void turnedDown(long count, boolean planFailed) {
+        if (planFailed)
+            turnedDown = 0;
+        else
+            turnedDown = turnedDownQueueSize == requests.size() ? (int) Math.min(turnedDown + count, Integer.MAX_VALUE - 1) : (int) Math.min(count, Integer.MAX_VALUE - 1);
+        turnedDownQueueSize = requests.size();
+    }
+
+    /**
+     * Pairs the requests of a window with the robots, as many pairs as possible at the least total cost.
+     * The cost of a pair is the straight line distance from the robot to the start of the request and on to its end,
+     * a lower bound of the distance it will travel. Pairs the robot cannot afford by its energy estimate are left out
+     * before solving. The trajectories of the pairs chosen are then planned and checked against the robot's energy,
+     * like in GREEDY mode, and the pairs are solved again without the ones that fail, until every pair chosen passes.
+     *
+     * @param window requests to hand out, oldest first
+     * @param robots waiting robots
+     * @return the pairs and the requests no robot can reach, in the order of the window
+     * @pre window and robots are non-null and non-empty
+     * @post every robot and every request appears in at most one pair, and every robot can perform its request
+     */
+    private BatchDispatch assignBatch(List<Request> window, List<RobotSnapshot> robots) {
+        double[][] cost = new double[window.size()][robots.size()];
+        double[][] required = new double[window.size()][robots.size()];
+        for (int i = 0; i < window.size(); i++) {
+            Request request = window.get(i);
+            double delivery = request.start().dist(request.end());
+            for (int j = 0; j < robots.size(); j++) {
+                RobotSnapshot robot = robots.get(j);
+                cost[i][j] = robot.energy() > robot.robot().energyToPerformRequest(request, robot.position()) ? robot.position().dist(request.start()) + delivery : Double.POSITIVE_INFINITY;
             }
-            // If no robot can reach the request's destination, send the request to the end of the queue
-            else {
-                moveToQueueEnd(nextRequest);
+        }
+        boolean[][] checked = new boolean[window.size()][robots.size()];
+        boolean planFailed = false;
+        while (true) {
+            int[] pairs = HungarianAssignment.solve(cost);
+            boolean failed = false;
+            for (int i = 0; i < pairs.length; i++) {
+                int j = pairs[i];
+                if (j < 0 || checked[i][j])
+                    continue;
+                RobotSnapshot robot = robots.get(j);
+                required[i][j] = plannedEnergy(robot.robot(), robot.position(), window.get(i));
+                planFailed |= required[i][j] == Double.POSITIVE_INFINITY;
+                if (robot.energy() > required[i][j]) {
+                    checked[i][j] = true;
+                } else {
+                    cost[i][j] = Double.POSITIVE_INFINITY;
+                    failed = true;
+                }
             }
+            if (failed)
+                continue;
+            List<Assignment> assignments = new ArrayList<>();
+            List<Request> unreachable = new ArrayList<>();
+            for (int i = 0; i < pairs.length; i++) {
+                if (pairs[i] >= 0)
+                    assignments.add(new Assignment(robots.get(pairs[i]).robot(), window.get(i), robots.get(pairs[i]).position(), required[i][pairs[i]]));
+                else if (Arrays.stream(cost[i]).allMatch(c -> c == Double.POSITIVE_INFINITY))
+                    unreachable.add(window.get(i));
+            }
+            return new BatchDispatch(assignments, unreachable, planFailed);
         }
     }
 
+    /**
+     * Determines if updating the manager would change nothing but the order of the queue. That is the case when no
+     * robot is waiting for a request, or no request is waiting for a robot, or every waiting request was turned down
+     * by the waiting robots since they last changed, with every trajectory checked planned. Waiting robots only lose
+     * energy, and the trajectories they were checked with are cached, so those requests keep being turned down, one per
+     * update, until a robot or a request comes in.
+     * No search may be under way.
+     *
+     * @return true if update() would at most move the next request to the end of the queue
+     */
+    boolean isIdle() {
+        if (pendingDispatch != null || pendingBatch != null)
+            return false;
+        int waiting = requests.size();
+        return subscribers.isEmpty() || waiting == 0 || (turnedDownQueueSize == waiting && turnedDown >= waiting);
+    }
+
+    /**
+     * Applies updates of an idle manager at once, turning down the next requests like update() would, one per update,
+     * or a window of them in BATCH dispatch mode.
+     *
+     * @param ticks number of updates to apply
+     * @pre isIdle()
+     * @post the manager is as it would be after ticks calls to update()
+     */
+    void skipTicks(int ticks) {
+        if (subscribers.isEmpty() || requests.isEmpty())
+            return;
+        long perUpdate = dispatchMode == DispatchMode.BATCH ? batchWindow() : 1;
+        long rotation = ticks * perUpdate % requests.size();
+        for (long i = 0; i < rotation; i++)
+            moveToQueueEnd(requests.getNextRequest());
+        turnedDown = (int) Math.min(turnedDown + ticks * perUpdate, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Determines if a robot picked by a search can still be handed its request: it is still waiting, where it was
+     * checked from, and still has more energy than the request needs.
+     *
+     * @param robot          The robot picked by the search.
+     * @param position       The position it was checked from.
+     * @param requiredEnergy The energy the request needs from there.
+     * @return True if the request can be assigned to the robot, false otherwise.
+     * @pre robot and position are non-null.
+     */
+    private boolean isStillAble(Robot robot, Point position, double requiredEnergy) {
+        return subscribers.contains(robot) && robot.getCurrentPosition().equals(position) && robot.getEnergy() > requiredEnergy;
+    }
+
     /**
      * Find the best robot and trajectory for the given request.
      *
      * @param nextRequest The next request in the queue.
+     * @param snapshots   The waiting robots, in the order they are tried.
      * @return RobotBestTrajectory object containing the best robot and its trajectory for the given request.
      * @pre nextRequest is non-null.
      * @post Returns a RobotBestTrajectory object with the robot having the shortest trajectory to the request and the corresponding trajectory.
      * If no robot can reach the request, both fields in RobotBestTrajectory will be null.
      */
-    private RobotBestTrajectory findBestRobotAndTrajectory(Request nextRequest, PriorityQueue<Robot> sortedSubscribers) {
-        Robot bestRobot = null;
-        Trajectory bestTrajectory = null;
+    private RobotBestTrajectory findBestRobotAndTrajectory(Request nextRequest, List<RobotSnapshot> snapshots) {
+        boolean planFailed = false;
         // Find the robot with the shortest trajectory to the next request
-        for (Robot robot : sortedSubscribers) {
-            if (robot.canPerformRequest(nextRequest)) {
-                Trajectory candidateTrajectory = getCandidateTrajectory(robot, nextRequest);
-                if (candidateTrajectory != null) {
-                    bestRobot = robot;
-                    bestTrajectory = candidateTrajectory;
-                    return new RobotBestTrajectory(bestRobot, bestTrajectory);
-                }
-            }
+        for (RobotSnapshot snapshot : snapshots) {
+            Robot robot = snapshot.robot();
+            // Robots that cannot afford the request by their estimate are skipped without planning
+            if (snapshot.energy() <= robot.energyToPerformRequest(nextRequest, snapshot.position()))
+                continue;
+            double requiredEnergy = plannedEnergy(robot, snapshot.position(), nextRequest);
+            planFailed |= requiredEnergy == Double.POSITIVE_INFINITY;
+            if (snapshot.energy() > requiredEnergy)
+                return new RobotBestTrajectory(nextRequest, robot, snapshot.position(), requiredEnergy, planFailed);
         }
-        return new RobotBestTrajectory(bestRobot, bestTrajectory);
+        return new RobotBestTrajectory(nextRequest, null, null, 0, planFailed);
     }
 
 
     /**
-     * Get the candidate trajectory for a given robot and request.
+     * Plans the trajectories of a robot to the start of a request and on to its end, and calculates the energy the
+     * robot needs to follow them and go back to charge.
      *
      * @param robot       The robot to evaluate.
+     * @param position    The position the robot starts from.
      * @param nextRequest The request to be fulfilled.
-     * @return The concatenated trajectory for the given robot and request, or null if not possible.
-     * @pre robot and nextRequest are non-null.
-     * @post Returns the concatenated trajectory from the robot's current position to the request start and from the start to the request end.
-     * If either of the two trajectories are not possible, returns null.
+     * @return The energy needed, or infinity if either trajectory could not be planned.
+     * @pre robot, position and nextRequest are non-null.
      */
-    private Trajectory getCandidateTrajectory(Robot robot, Request nextRequest) {
-        Trajectory trajectoryToStart = robot.getTrajectory(robot.getCurrentPosition(), nextRequest.start());
+    private double plannedEnergy(Robot robot, Point position, Request nextRequest) {
+        Trajectory trajectoryToStart = robot.getTrajectory(position, nextRequest.start());
         Trajectory trajectoryStartToEnd = robot.getTrajectory(nextRequest.start(), nextRequest.end());
         if (trajectoryToStart == null || trajectoryStartToEnd == null) {
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
-        return trajectoryToStart.concatenate(trajectoryStartToEnd);
+        return robot.energyToPerformRequest(nextRequest, trajectoryToStart, trajectoryStartToEnd);
     }
 
     /**
@@ -166,7 +444,7 @@ public class RobotManager {
     /**
      * Updates the subscribers list based on the robot's power state.
      * If a robot is in standby mode, it will be added to the subscribers list.
-     * If a robot is delivering, returning, or enroute, it will be removed from the subscribers list.
+     * If a robot is delivering, returning, enroute or planning, it will be removed from the subscribers list.
      *
      * @param robot The robot whose power state has changed.
      * @param event The power state event that occurred.
@@ -177,8 +455,12 @@ public class RobotManager {
         if (robot == null || event == null) throw new IllegalArgumentException("Robot and event cannot be null");
         // Update subscribers list based on the robot's power state, if standby, the robot starts listening, otherwise it stops receiving
         switch (event) {
-            case STANDBY -> subscribers.add(robot);
-            case DELIVERING, RETURNING, ENROUTE -> subscribers.remove(robot);
+            case STANDBY -> {
+                if (subscribers.add(robot)) turnedDown = 0;
+            }
+            case DELIVERING, RETURNING, ENROUTE, PLANNING -> {
+                if (subscribers.remove(robot)) turnedDown = 0;
+            }
             default -> throw new IllegalStateException("Robot in illegal state");
         }
     }
@@ -198,6 +480,47 @@ public class RobotManager {
         updateSubscriberList(sender, event);
     }
 
+    /**
+     * Sets the listener of delivered requests, replacing the previous one.
+     *
+     * @param deliveryListener receives every request once its robot reaches the request's end point, on the thread updating the robot
+     * @pre deliveryListener != null
+     * @post deliveryListener is called for every later delivery
+     */
+    public void setDeliveryListener(Consumer<Request> deliveryListener) {
+        if (deliveryListener == null) throw new IllegalArgumentException("Delivery listener cannot be null");
+        this.deliveryListener = deliveryListener;
+    }
+
+    /**
+     * Called by a robot that reached the end point of the request it was delivering.
+     *
+     * @param robot the robot that delivered its request
+     * @pre robot != null
+     * @post the robot has no current request, and the delivery listener received the request if there was one
+     */
+    void delivered(Robot robot) {
+        Request request = currentRequests.remove(robot);
+        if (request != null)
+            deliveryListener.accept(request);
+    }
+
+    /**
+     * Called by a robot that could not plan a trajectory for the request it was handed. The request is taken back and
+     * put at the front of the queue, to be handed out again.
+     *
+     * @param robot the robot that could not perform its request
+     * @pre robot != null
+     * @post the robot has no current request, and its request, if there was one, is the next request of the queue
+     */
+    void planFailed(Robot robot) {
+        Request request = currentRequests.remove(robot);
+        if (request != null) {
+            requests.addFirstRequest(request);
+            turnedDown = 0;
+        }
+    }
+
     /**
      * Returns the queue of requests.
      *
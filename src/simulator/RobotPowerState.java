@@ -7,7 +7,8 @@ package simulator;
  * - CHARGING: The robot is currently charging and not able to accept new requests.
  * - STANDBY: The robot is not currently delivering or charging, but is waiting for a new request.
  * - RETURNING: The robot is returning to its charging station to recharge.
+ * - PLANNING: The robot is standing still while its next trajectory is planned in the background.
  *  @author Jude Adam
  *  @version 1.0.0 20/02/2023
  */
-public enum RobotPowerState{ENROUTE,DELIVERING,CHARGING,STANDBY,RETURNING}
+public enum RobotPowerState{ENROUTE,DELIVERING,CHARGING,STANDBY,RETURNING,PLANNING}
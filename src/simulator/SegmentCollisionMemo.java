@@ -0,0 +1,118 @@
+package simulator;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class SegmentCollisionMemo, a concurrent memo of the obstacles collided by each segment, shared by every planner on
+ * the same map.
+ * Segments are keyed by their two points packed into a single long, 10 bits per coordinate, and every result is stored
+ * with the version of the map it was calculated for, so results from before an obstacle was added are never returned.
+ * The memo is a fixed table where each key has a single slot, a new result replaces whatever was in its slot, so it
+ * never grows and lookups take constant time without locking.
+ *
+ * @inv slots.length() is a power of two
+ */
+public class SegmentCollisionMemo {
+
+    private static final int POINT_BITS = 20;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int shift;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Memo entry, immutable so it can be shared between threads as soon as it is in its slot.
+     */
+    private static final class Entry {
+        private final long key;
+        private final long version;
+        private final long[] mask;
+
+        private Entry(long key, long version, long[] mask) {
+            this.key = key;
+            this.version = version;
+            this.mask = mask;
+        }
+    }
+
+    /**
+     * Constructor for SegmentCollisionMemo class.
+     *
+     * @param capacity maximum number of segments remembered, rounded up to a power of two
+     * @pre capacity > 0
+     * @post the memo is empty
+     * @throws IllegalArgumentException if capacity is not positive or above 2^30
+     */
+    public SegmentCollisionMemo(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Capacity must be positive and at most 2^30");
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(size);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Packs the points of a segment into a single key.
+     *
+     * @param start first point of the segment, packed by IntPointList.pack
+     * @param end   second point of the segment, packed by IntPointList.pack
+     * @return key of the segment from start to end
+     */
+    public static long key(int start, int end) {
+        return ((long) start << POINT_BITS) | end;
+    }
+
+    /**
+     * @param key key of a segment
+     * @return slot of the key, spread by a multiplicative hash so nearby segments do not share slots
+     */
+    private int slot(long key) {
+        return shift == Long.SIZE ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Looks up the collisions of a segment.
+     *
+     * @param key     key of the segment
+     * @param version version of the map the collisions must have been calculated for
+     * @return bitmask of the obstacles collided by the segment, which must not be modified, or null if it is not remembered
+     */
+    public long[] get(long key, long version) {
+        Entry entry = slots.get(slot(key));
+        if (entry != null && entry.key == key && entry.version == version) {
+            hits.increment();
+            return entry.mask;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Remembers the collisions of a segment, replacing the segment that was in its slot.
+     *
+     * @param key     key of the segment
+     * @param version version of the map the collisions were calculated for
+     * @param mask    bitmask of the obstacles collided by the segment, it must not be modified afterwards
+     * @pre mask != null
+     */
+    public void put(long key, long version, long[] mask) {
+        slots.set(slot(key), new Entry(key, version, mask));
+    }
+
+    /**
+     * @return number of lookups that found the segment
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that did not find the segment
+     */
+    public long misses() {
+        return misses.sum();
+    }
+}
@@ -41,6 +41,15 @@ public abstract class Shape {
      */
     public abstract boolean isIntercepted(LineSegment segment);
 
+    /**
+     * Calculates how much of the given segment lies inside the shape.
+     *
+     * @param segment Line segment
+     * @return Length of the part of the segment inside the shape, 0 if it only touches it or misses it
+     * @pre segment != null
+     */
+    public abstract double penetration(LineSegment segment);
+
     /**
      * Gets the points that make up the shape.
      *
@@ -0,0 +1,9 @@
+package simulator;
+
+/**
+ * Represents the ways a BatchSimulation advances time.
+ * TICK updates the robot manager and every robot on every tick. EVENT jumps over the ticks where nothing but energy
+ * and positions along paths would change, straight to the next tick where a robot arrives, finishes charging, gets
+ * close to needing to go home or a request comes in, and gives the same results as TICK.
+ */
+public enum SimulationEngine {TICK, EVENT}
@@ -1,6 +1,8 @@
 package simulator;
 import ui.SimulatorUI;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 /**
  * The Simulator class is responsible for controlling the simulation.
  * @author Jude Adam
@@ -46,44 +48,55 @@ public class Simulator {
     /**
      * Initializes the simulation's robots, all distributed along the perimeter of the map, all fully charged and in standby.
      *
-     * @param generator   The generator used.
-     * @param deliveryMap The delivery map.
+     * @param generator       The generator used.
+     * @param deliveryMap     The delivery map.
+     * @param plannerExecutor The executor where the robots plan their trajectories.
      * @return Set of n robots, one in each corner, all fully charged and in standby.
-     * @pre generator != null &amp;&amp; deliveryMap != null
+     * @pre generator != null &amp;&amp; deliveryMap != null &amp;&amp; plannerExecutor != null
      */
-    private Set<Robot> initializeRobots(int n, PointGenerator generator, DeliveryMap deliveryMap) {
+    private Set<Robot> initializeRobots(int n, PointGenerator generator, DeliveryMap deliveryMap, ExecutorService plannerExecutor) {
         LinkedHashSet<Robot> robots = new LinkedHashSet<>(n);
+        for (int i = 0; i < n; i++) {
+            Robot robot = new Robot(chargingPoint(i, n), deliveryMap, generator, rng, plannerExecutor);
+            robots.add(robot);
+        }
+
+        return robots;
+    }
+
+    /**
+     * Calculates the charging point of a robot, robots being evenly distributed along the perimeter of the map.
+     *
+     * @param i index of the robot
+     * @param n number of robots
+     * @return charging point of robot i
+     * @pre 0 &le; i &lt; n
+     */
+    static Point chargingPoint(int i, int n) {
         int mapSize = 1000;
         int perimeter = (mapSize - 30) * 4;
         int gap = perimeter / n;
         int offset = 15;
 
-        for (int i = 0; i < n; i++) {
-            int perimeterPosition = i * gap;
-            int x, y;
-            if (perimeterPosition < (mapSize - 2 * offset)) {
-                x = offset + perimeterPosition;
-                y = offset;
-            } else if (perimeterPosition < 2 * (mapSize - offset)) {
-                x = mapSize - offset;
-                y = offset + (perimeterPosition - (mapSize - 2 * offset));
-            } else if (perimeterPosition < 3 * (mapSize - offset)) {
-                x = mapSize - offset - (perimeterPosition - 2 * (mapSize - offset));
-                y = mapSize - offset;
-            } else {
-                x = offset;
-                y = mapSize - offset - (perimeterPosition - 3 * (mapSize - offset));
-            }
-
-            x = (x + mapSize) % mapSize;
-            y = (y + mapSize) % mapSize;
-
-            Point chargingPoint = new Point(x, y);
-            Robot robot = new Robot(chargingPoint, deliveryMap, generator, rng);
-            robots.add(robot);
+        int perimeterPosition = i * gap;
+        int x, y;
+        if (perimeterPosition < (mapSize - 2 * offset)) {
+            x = offset + perimeterPosition;
+            y = offset;
+        } else if (perimeterPosition < 2 * (mapSize - offset)) {
+            x = mapSize - offset;
+            y = offset + (perimeterPosition - (mapSize - 2 * offset));
+        } else if (perimeterPosition < 3 * (mapSize - offset)) {
+            x = mapSize - offset - (perimeterPosition - 2 * (mapSize - offset));
+            y = mapSize - offset;
+        } else {
+            x = offset;
+            y = mapSize - offset - (perimeterPosition - 3 * (mapSize - offset));
         }
 
-        return robots;
+        x = (x + mapSize) % mapSize;
+        y = (y + mapSize) % mapSize;
+        return new Point(x, y);
     }
 
     /**
@@ -94,7 +107,18 @@ public class Simulator {
      */
     private ArrayList<Shape> generateRandomObstacles(ShapeGenerator generator){
         // Generate random obstacles
-        int nObstacles = ui.askForNumberOfObstacles();
+        return randomObstacles(ui.askForNumberOfObstacles(), generator, rng);
+    }
+
+    /**
+     * Generates random obstacles, each a circle, rectangle or triangle chosen at random.
+     * @param nObstacles The number of obstacles.
+     * @param generator The generator used.
+     * @param rng The random number generator choosing the type of each obstacle.
+     * @return List of random obstacles.
+     * @pre nObstacles &ge; 0 &amp;&amp; generator != null &amp;&amp; rng != null
+     */
+    static ArrayList<Shape> randomObstacles(int nObstacles, ShapeGenerator generator, Random rng) {
         ArrayList<Shape> obstacles = new ArrayList<>();
         for (int i = 0; i < nObstacles; i++) {
             int option = rng.nextInt(3);
@@ -113,7 +137,8 @@ public class Simulator {
      * and initializing robots. The method then enters an infinite loop to run the simulation.
      * During each iteration of the loop, the method checks if the UI is asking for a new point.
      * If it is, the method asks the UI for a point and adds it as a request to both the UI and
-     * the RobotManager. The RobotManager and all robots are then updated. The method also displays
+     * the RobotManager. The RobotManager and all robots are then updated, trajectories being planned in the background
+     * so that planning never holds up an iteration. The method also displays
      * the robot status on the UI and waits for speed/100 * 5 milliseconds before starting the next iteration
      * of the loop.
      *
@@ -144,37 +169,48 @@ public class Simulator {
             nRobots = ui.askForNRobots();
         }while(nRobots>=100 || nRobots<0);
 
+        // Plan trajectories in the background, one planning thread per core
+        ExecutorService plannerExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+
         // Create and initialize robots
-        Set<Robot> robots = initializeRobots(nRobots,pointGenerator,deliveryMap);
+        Set<Robot> robots = initializeRobots(nRobots,pointGenerator,deliveryMap,plannerExecutor);
 
         // Create robot manager and subscribe robots to it
-        RobotManager robotManager = new RobotManager(robots,requestQueue);
+        RobotManager robotManager = new RobotManager(robots,requestQueue,plannerExecutor);
 
         int step = 0;
         isRunning = true;
         // Continue running the simulation until the user stops it
-        while(isRunning) {
-            if (ui.isAskingForNewPoint()) {
-                Request request;
-                do {
-                    request = ui.askForRequest();
+        try {
+            while(isRunning) {
+                if (ui.isAskingForNewPoint()) {
+                    Request request;
+                    do {
+                        request = ui.askForRequest();
+                    }
+                    while (!validInputCheck(deliveryMap, request));
+                    requestQueue.addRequest(request);
+                    ui.addRequest(request);
                 }
-                while (!validInputCheck(deliveryMap, request));
-                requestQueue.addRequest(request);
-                ui.addRequest(request);
-            }
 
-            // Update robot manager and robots
-            robotManager.update();
-            for (Robot robot : robots)
-                robot.update();
+                // Update robot manager and robots
+                robotManager.update();
+                for (Robot robot : robots)
+                    robot.update();
 
-            // Display robot status on UI
-            ui.displayRobotStatus(step, robots);
+                // Display robot status on UI
+                ui.displayRobotStatus(step, robots);
 
-            // Wait for 1/speed seconds
-            Thread.sleep((long) (1000/speed));
-            step++;
+                // Wait for 1/speed seconds
+                Thread.sleep((long) (1000/speed));
+                step++;
+            }
+        } finally {
+            plannerExecutor.shutdownNow();
         }
     }
 
@@ -8,39 +8,143 @@ import java.util.*;
  * @author Jude Adam
  * @version 1.0.0 20/02/2023
  * @inv Points in the path must be sequential and in the 1st quadrant
+ * @inv segmentCollisions.size() == points.size() - 1 &amp;&amp; collisionCount == calculateCollisions()
  */
 public class Trajectory {
-    private final List<Point> points;
-    private final Random rng;
+    // Pixels a detour point is kept away from the obstacle it goes around, plus a random spread
+    private static final int DETOUR_MARGIN = 3;
+    private static final int DETOUR_SPREAD = 10;
+    // Points packed by IntPointList.pack, and the same points as a set for constant time membership tests
+    private final IntPointList points;
+    private final PointSet pointSet;
+    // Random stream of the trajectory, rebound when the trajectory is reused for another individual
+    private Random rng;
     private double length;
-    public final PointGenerator generator;
+    // fitness() of the current length and collision count, updated whenever either changes
+    private double fitness;
+    private FitnessMode fitnessMode = FitnessMode.FEASIBILITY;
+    public PointGenerator generator;
     private int collisionCount;
-    private final ArrayList<Shape> obstacles;
+    private final List<Shape> obstacles;
+    // Bitmask of the obstacles collided by each segment, and number of segments colliding with each obstacle
+    private final List<long[]> segmentCollisions;
+    private final int[] obstacleHits;
 
     /**
      * Creates a new Trajectory object.
      *
      * @param pontos    - the list of points that define the trajectory.
      * @param generator - the random number generator used for mutation and crossover operations.
-     * @param obstacles - the list of obstacles that the trajectory must avoid.
+     * @param obstacles - the list of obstacles that the trajectory must avoid, which must not change while the trajectory is used.
      * @param rng       - the random number generator
      * @pre pontos != null &amp;&amp; generator != null &amp;&amp; obstacles != null &amp;&amp; rng != null
      */
     public Trajectory(ArrayList<Point> pontos, PointGenerator generator, List<Shape> obstacles, Random rng) {
-        this.obstacles = (ArrayList<Shape>) obstacles;
+        this(IntPointList.of(pontos), generator, obstacles, rng);
+    }
+
+    /**
+     * Creates a new Trajectory object, scored with the given fitness mode.
+     *
+     * @param pontos      - the list of points that define the trajectory.
+     * @param generator   - the random number generator used for mutation and crossover operations.
+     * @param obstacles   - the list of obstacles that the trajectory must avoid, which must not change while the trajectory is used.
+     * @param rng         - the random number generator
+     * @param fitnessMode - how the fitness of the trajectory is calculated, passed on to its offspring and copies
+     * @pre pontos != null &amp;&amp; generator != null &amp;&amp; obstacles != null &amp;&amp; rng != null &amp;&amp; fitnessMode != null
+     */
+    public Trajectory(ArrayList<Point> pontos, PointGenerator generator, List<Shape> obstacles, Random rng, FitnessMode fitnessMode) {
+        this(IntPointList.of(pontos), generator, obstacles, rng, fitnessMode);
+    }
+
+    /**
+     * Creates a new Trajectory object from packed points, leaving out repeated points.
+     *
+     * @param pontos    - the packed points that define the trajectory.
+     * @param generator - the random number generator used for mutation and crossover operations.
+     * @param obstacles - the list of obstacles that the trajectory must avoid, which must not change while the trajectory is used.
+     * @param rng       - the random number generator
+     * @pre pontos != null &amp;&amp; generator != null &amp;&amp; obstacles != null &amp;&amp; rng != null
+     */
+    Trajectory(IntPointList pontos, PointGenerator generator, List<Shape> obstacles, Random rng) {
+        this(pontos, generator, obstacles, rng, FitnessMode.FEASIBILITY);
+    }
+
+    /**
+     * Creates a new Trajectory object from packed points, leaving out repeated points, scored with the given fitness mode.
+     *
+     * @param pontos      - the packed points that define the trajectory.
+     * @param generator   - the random number generator used for mutation and crossover operations.
+     * @param obstacles   - the list of obstacles that the trajectory must avoid, which must not change while the trajectory is used.
+     * @param rng         - the random number generator
+     * @param fitnessMode - how the fitness of the trajectory is calculated
+     * @pre pontos != null &amp;&amp; generator != null &amp;&amp; obstacles != null &amp;&amp; rng != null &amp;&amp; fitnessMode != null
+     */
+    Trajectory(IntPointList pontos, PointGenerator generator, List<Shape> obstacles, Random rng, FitnessMode fitnessMode) {
+        this.obstacles = obstacles;
+        this.fitnessMode = fitnessMode;
         this.generator = generator;
-        points = new ArrayList<>();
         this.rng = rng;
-        length = 0;
         int n = pontos.size();
-        int j = 0;
+        this.points = new IntPointList(n);
+        this.pointSet = new PointSet(n);
+        length = 0;
         for (int i = 0; i < n; i++) {
-            if (!points.contains(pontos.get(i))) {
-                points.add(pontos.get(i));
-                if (i > 0) length += points.get(++j).dist(points.get(j - 1));
+            int p = pontos.get(i);
+            if (pointSet.add(p)) {
+                if (points.size() > 0) length += IntPointList.dist(points.get(points.size() - 1), p);
+                points.add(p);
             }
         }
-        this.collisionCount = calculateCollisions();
+        this.segmentCollisions = new ArrayList<>(points.size());
+        this.obstacleHits = new int[obstacles.size()];
+        for (int i = 0; i < points.size() - 1; i++)
+            insertSegment(i);
+        updateFitness();
+    }
+
+    /**
+     * Creates an empty trajectory, to be filled in place by onePointCrossover.
+     *
+     * @param obstacles the list of obstacles that the trajectory must avoid
+     * @pre obstacles != null
+     */
+    Trajectory(List<Shape> obstacles) {
+        this.obstacles = obstacles;
+        this.points = new IntPointList();
+        this.pointSet = new PointSet();
+        this.segmentCollisions = new ArrayList<>();
+        this.obstacleHits = new int[obstacles.size()];
+    }
+
+    /**
+     * Creates a copy of a trajectory that uses another random stream, reusing its collisions.
+     */
+    private Trajectory(Trajectory other, PointGenerator generator, Random rng) {
+        this.obstacles = other.obstacles;
+        this.generator = generator;
+        this.rng = rng;
+        this.points = other.points.copy();
+        this.pointSet = other.pointSet.copy();
+        this.length = other.length;
+        this.fitness = other.fitness;
+        this.fitnessMode = other.fitnessMode;
+        this.collisionCount = other.collisionCount;
+        // Segment masks are never modified once computed, so they can be shared
+        this.segmentCollisions = new ArrayList<>(other.segmentCollisions);
+        this.obstacleHits = other.obstacleHits.clone();
+    }
+
+    /**
+     * Copies the trajectory, the copy uses the given random stream for its own mutations.
+     *
+     * @param generator point generator of the copy
+     * @param rng       random number generator of the copy
+     * @return trajectory with the same points, length and collisions
+     * @pre generator != null &amp;&amp; rng != null
+     */
+    public Trajectory copy(PointGenerator generator, Random rng) {
+        return new Trajectory(this, generator, rng);
     }
 
     /**
@@ -48,10 +152,10 @@ public class Trajectory {
      * @post The returned string is non-empty.
      */
     public String toString() {
-        if (points.isEmpty()) return "[]";
+        if (points.size() == 0) return "[]";
         StringBuilder str = new StringBuilder("[");
-        for (Point point : points) {
-            str.append(point);
+        for (int i = 0; i < points.size(); i++) {
+            str.append(IntPointList.unpack(points.get(i)));
         }
         str.deleteCharAt(str.length() - 1);
         str.append("]");
@@ -65,26 +169,40 @@ public class Trajectory {
      * @post The returned list is non-empty.
      */
     public List<Point> calculatePointsAlongTrajectory() {
-        LinkedList<Point> list = new LinkedList<>();
-        int n = points.size();
-        for (int i = 0; i < n - 1; i++) {
-            LineSegment lineSegment = new LineSegment(points.get(i), points.get(i + 1));
-            list.addAll(lineSegment.drawLine());
+        ArrayList<Point> list = new ArrayList<>();
+        PathCursor cursor = cursor();
+        while (cursor.hasNext()) {
+            cursor.advance();
+            list.add(new Point(cursor.x(), cursor.y()));
         }
         return list;
     }
 
     /**
-     * Calculates the number of collisions between the trajectory and a given list of obstacles.
+     * Creates a cursor over the points along the trajectory, which computes them one at a time as it advances.
+     *
+     * @return a cursor positioned before the first point along the trajectory
+     * @post the cursor visits the same points as calculatePointsAlongTrajectory, in the same order
+     */
+    public PathCursor cursor() {
+        return new PathCursor(points);
+    }
+
+    /**
+     * Calculates the number of collisions between the trajectory and a given list of obstacles from scratch,
+     * getCollisionCount gives the same number without testing any segment.
+     * When the obstacles are an ObstacleGrid, each segment is only tested against the obstacles near it.
      *
      * @return the number of collisions between the trajectory and the obstacles.
      */
     public int calculateCollisions() {
+        if (obstacles instanceof ObstacleGrid grid)
+            return grid.countCollisions(points.toPointList());
         int result = 0;
         int n = points.size();
         for (Shape shape : obstacles)
             for (int i = 0; i < n - 1; i++)
-                if (shape.isIntercepted(new LineSegment(points.get(i), points.get(i + 1)))) {
+                if (shape.isIntercepted(segment(i))) {
                     result++;
                     break;
                 }
@@ -92,12 +210,123 @@ public class Trajectory {
     }
 
     /**
-     * Calculates the fitness ofthe trajectory.
+     * @param i index of the first point of the segment
+     * @return the segment starting at point i
+     */
+    private LineSegment segment(int i) {
+        return new LineSegment(IntPointList.unpack(points.get(i)), IntPointList.unpack(points.get(i + 1)));
+    }
+
+    /**
+     * Calculates the bitmask of the obstacles collided by the segment starting at the given point.
+     *
+     * @param i index of the first point of the segment
+     * @return bitmask with one bit per obstacle, in the order of the obstacles list, shared and never modified
+     */
+    private long[] segmentMask(int i) {
+        if (obstacles instanceof ObstacleGrid grid)
+            return grid.collisions(points.get(i), points.get(i + 1));
+        LineSegment segment = segment(i);
+        long[] mask = new long[(obstacles.size() + Long.SIZE - 1) / Long.SIZE];
+        for (int j = 0; j < obstacles.size(); j++)
+            if (obstacles.get(j).isIntercepted(segment))
+                mask[j >>> 6] |= 1L << j;
+        return mask;
+    }
+
+    /**
+     * Adds the collisions of a segment to the obstacle hit counts, updating the collision count.
+     *
+     * @param mask  bitmask of the obstacles collided by the segment
+     * @param delta 1 when the segment is added, -1 when it is removed
+     */
+    private void countSegment(long[] mask, int delta) {
+        for (int w = 0; w < mask.length; w++)
+            for (long word = mask[w]; word != 0; word &= word - 1) {
+                int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (delta > 0 && obstacleHits[j]++ == 0) collisionCount++;
+                else if (delta < 0 && --obstacleHits[j] == 0) collisionCount--;
+            }
+    }
+
+    /**
+     * Records the collisions of a new segment, starting at point i.
+     *
+     * @param i index of the first point of the segment
+     */
+    private void insertSegment(int i) {
+        long[] mask = segmentMask(i);
+        segmentCollisions.add(i, mask);
+        countSegment(mask, 1);
+    }
+
+    /**
+     * Forgets the collisions of the segment that started at point i.
+     *
+     * @param i index of the segment
+     */
+    private void removeSegment(int i) {
+        countSegment(segmentCollisions.remove(i), -1);
+    }
+
+    /**
+     * Retests the segment starting at point i after one of its points changed.
+     *
+     * @param i index of the first point of the segment
+     */
+    private void replaceSegment(int i) {
+        removeSegment(i);
+        insertSegment(i);
+    }
+
+    /**
+     * Calculates the fitness ofthe trajectory. It is kept up to date by every change to the trajectory, so this
+     * takes constant time.
+     * With FitnessMode.PENETRATION a trajectory with collisions scores -1 - penetration() instead of 0, below every
+     * trajectory without collisions, and higher the less it goes into the obstacles.
      *
      * @return the fitness of the trajectory.
      */
     public double fitness() {
-        return Math.exp((200 / length) * (collisionCount == 0 ? 1 : 0)) - 1;
+        return fitness;
+    }
+
+    /**
+     * Recalculates the cached fitness after the length or the collision count changed.
+     */
+    private void updateFitness() {
+        if (collisionCount > 0 && fitnessMode == FitnessMode.PENETRATION)
+            fitness = -1 - penetration();
+        else
+            fitness = Math.exp((200 / length) * (collisionCount == 0 ? 1 : 0)) - 1;
+    }
+
+    /**
+     * Calculates how far the trajectory goes into the obstacles it collides with, only the obstacles each segment
+     * collides with are measured.
+     *
+     * @return sum, over every segment and every obstacle it collides with, of the length of the segment inside the obstacle
+     * @post result &ge; 0 &amp;&amp; (getCollisionCount() > 0 || result == 0)
+     */
+    public double penetration() {
+        double result = 0;
+        for (int i = 0; i < segmentCollisions.size(); i++) {
+            long[] mask = segmentCollisions.get(i);
+            LineSegment segment = null;
+            for (int w = 0; w < mask.length; w++)
+                for (long word = mask[w]; word != 0; word &= word - 1) {
+                    if (segment == null) segment = segment(i);
+                    result += obstacles.get((w << 6) + Long.numberOfTrailingZeros(word)).penetration(segment);
+                }
+        }
+        return result;
+    }
+
+    /**
+     * @return how the fitness of the trajectory is calculated
+     */
+    public FitnessMode getFitnessMode() {
+        return fitnessMode;
     }
 
     /**
@@ -108,25 +337,91 @@ public class Trajectory {
      * @pre other != null
      */
     public Trajectory[] onePointCrossover(Trajectory other) {
-        ArrayList<Point> otherPoints = other.getPoints();
-        int point1 = rng.nextInt(points.size() - 1) + 1;
-        int point2 = rng.nextInt(otherPoints.size() - 1) + 1;
+        return onePointCrossover(other, generator, rng);
+    }
+
+    /**
+     * onePointCrossover method to perform one point crossover between two trajectories using the given random stream,
+     * the offspring keep using that stream for their own mutations
+     *
+     * @param other     other trajectory
+     * @param generator point generator of the offspring
+     * @param rng       random number generator used to pick the crossover points and given to the offspring
+     * @return offspring
+     * @pre other != null &amp;&amp; generator != null &amp;&amp; rng != null
+     */
+    public Trajectory[] onePointCrossover(Trajectory other, PointGenerator generator, Random rng) {
+        Trajectory[] offspring = {new Trajectory(obstacles), new Trajectory(obstacles)};
+        onePointCrossover(other, offspring[0], offspring[1], generator, rng);
+        return offspring;
+    }
 
-        ArrayList<Point> child1 = new ArrayList<>(points.subList(0, point1));
-        child1.addAll(otherPoints.subList(point2, otherPoints.size()));
+    /**
+     * onePointCrossover method that writes the offspring into two existing trajectories, overwriting them, so a
+     * population can reuse the individuals of an older generation instead of allocating new ones.
+     * Segments copied whole from a parent keep the collisions the parent already computed.
+     *
+     * @param other     other trajectory
+     * @param child1    trajectory overwritten with the start of this trajectory and the end of other
+     * @param child2    trajectory overwritten with the start of other and the end of this trajectory
+     * @param generator point generator of the offspring
+     * @param rng       random number generator used to pick the crossover points and given to the offspring
+     * @pre other != null &amp;&amp; child1, child2, this and other are different objects with the same obstacles
+     * @post child1 and child2 equal the offspring returned by onePointCrossover(other, generator, rng)
+     */
+    void onePointCrossover(Trajectory other, Trajectory child1, Trajectory child2, PointGenerator generator, Random rng) {
+        int point1 = rng.nextInt(points.size() - 1) + 1;
+        int point2 = rng.nextInt(other.points.size() - 1) + 1;
+        child1.recombine(this, point1, other, point2, generator, rng);
+        child2.recombine(other, point2, this, point1, generator, rng);
+    }
 
-        ArrayList<Point> child2 = new ArrayList<>(otherPoints.subList(0, point2));
-        child2.addAll(points.subList(point1, points.size()));
+    /**
+     * Overwrites this trajectory with the points of first before index from1 followed by the points of second from
+     * index from2, leaving out repeated points.
+     */
+    private void recombine(Trajectory first, int from1, Trajectory second, int from2, PointGenerator generator, Random rng) {
+        this.generator = generator;
+        this.rng = rng;
+        this.fitnessMode = first.fitnessMode;
+        points.clear();
+        pointSet.clear();
+        segmentCollisions.clear();
+        Arrays.fill(obstacleHits, 0);
+        collisionCount = 0;
+        length = 0;
+        append(first, 0, from1);
+        append(second, from2, second.points.size());
+        updateFitness();
+    }
 
-        return new Trajectory[]{
-                new Trajectory(child1, generator, obstacles, rng),
-                new Trajectory(child2, generator, obstacles, rng)
-        };
+    /**
+     * Appends the points of source in [from, to) that are not yet in this trajectory.
+     */
+    private void append(Trajectory source, int from, int to) {
+        boolean follows = false; // true if the last point added is source.points.get(k - 1)
+        for (int k = from; k < to; k++) {
+            int p = source.points.get(k);
+            if (!pointSet.add(p)) {
+                follows = false;
+                continue;
+            }
+            int n = points.size();
+            points.add(p);
+            if (n > 0) {
+                length += IntPointList.dist(points.get(n - 1), p);
+                long[] mask = follows ? source.segmentCollisions.get(k - 1) : segmentMask(n - 1);
+                segmentCollisions.add(mask);
+                countSegment(mask, 1);
+            }
+            follows = true;
+        }
     }
 
 
     /**
-     * mutate method to perform one point mutation with probability pm
+     * mutate method to perform one point mutation with probability pm, only the two segments around the mutated
+     * point are tested for collisions again
      *
      * @param pm mutation probability
      * @pre 0 &le; pm &le; 1
@@ -134,16 +429,24 @@ public class Trajectory {
     public void mutate(double pm) {
         if (points.size() > 2 && rng.nextDouble() < pm) {
             int i = rng.nextInt(points.size() - 2) + 1;
-            Point p = generator.generateGaussianPoint(50, points.get(0), points.get(points.size() - 1));
+            int old = points.get(i);
+            int p = generator.generatePackedGaussianPoint(50, points.get(0), points.get(points.size() - 1));
             do {
-                if (!points.contains(p)) {
+                if (!pointSet.contains(p)) {
                     //Mutate point and update length
-                    length -= (points.get(i - 1).dist(points.get(i)) + points.get(i).dist(points.get(i + 1)));
+                    length -= (IntPointList.dist(points.get(i - 1), old) + IntPointList.dist(old, points.get(i + 1)));
                     points.set(i, p);
-                    length += (points.get(i - 1).dist(p) + p.dist(points.get(i + 1)));
-                } else p = generator.generateGaussianPoint(50, points.get(0), points.get(points.size() - 1));
-            } while (points.contains(p));
-            this.collisionCount = calculateCollisions();
+                    pointSet.remove(old);
+                    pointSet.add(p);
+                    length += (IntPointList.dist(points.get(i - 1), p) + IntPointList.dist(p, points.get(i + 1)));
+                } else p = generator.generatePackedGaussianPoint(50, points.get(0), points.get(points.size() - 1));
+            } while (pointSet.contains(p));
+            // The point is only mutated if the first one generated was not already in the trajectory
+            if (points.get(i) != old) {
+                replaceSegment(i - 1);
+                replaceSegment(i);
+                updateFitness();
+            }
         }
     }
 
@@ -157,15 +460,16 @@ public class Trajectory {
         if (other == null) throw new IllegalArgumentException("OTHER CAN'T BE NULL");
         if (other.getClass() != this.getClass()) return false;
         Trajectory otherTrajectory = (Trajectory) other;
-        ArrayList<Point> otherTrajectoryPoints = otherTrajectory.getPoints();
+        IntPointList otherTrajectoryPoints = otherTrajectory.points;
         for (int i = 0; i < points.size(); i++)
-            if (!points.get(i).equals(otherTrajectoryPoints.get(i)))
+            if (points.get(i) != otherTrajectoryPoints.get(i))
                 return false;
         return true;
     }
 
     /**
-     * addPoint method to add a random point in a random spot in the trajectory with probability pa
+     * addPoint method to add a random point in a random spot in the trajectory with probability pa, only the two
+     * segments around the new point are tested for collisions
      *
      * @param pa addition probability
      * @pre 0 &le; pa &le; 1
@@ -174,21 +478,29 @@ public class Trajectory {
         if (rng.nextDouble() < pa) {
             int i = 0;
             if (points.size() > 2) i = rng.nextInt(points.size() - 2) + 1;
-            Point p = generator.generateGaussianPoint(50, points.get(0), points.get(points.size() - 1));
+            int size = points.size();
+            int p = generator.generatePackedGaussianPoint(50, points.get(0), points.get(points.size() - 1));
             do {
-                if (!points.contains(p)) {
+                if (!pointSet.contains(p)) {
                     // Add point and update length
-                    length -= (points.get(i).dist(points.get(i + 1)));
+                    length -= IntPointList.dist(points.get(i), points.get(i + 1));
                     points.add(i + 1, p);
-                    length += (points.get(i).dist(p) + p.dist(points.get(i + 2)));
-                } else p = generator.generateGaussianPoint(50, points.get(0), points.get(points.size() - 1));
-            } while (points.contains(p));
-            this.collisionCount = calculateCollisions();
+                    pointSet.add(p);
+                    length += (IntPointList.dist(points.get(i), p) + IntPointList.dist(p, points.get(i + 2)));
+                } else p = generator.generatePackedGaussianPoint(50, points.get(0), points.get(points.size() - 1));
+            } while (pointSet.contains(p));
+            // The point is only added if the first one generated was not already in the trajectory
+            if (points.size() > size) {
+                replaceSegment(i);
+                insertSegment(i + 1);
+                updateFitness();
+            }
         }
     }
 
     /**
-     * removePoint method to remove a random point from the trajectory with probability pr
+     * removePoint method to remove a random point from the trajectory with probability pr, only the segment that
+     * replaces the two around the removed point is tested for collisions
      *
      * @param pr removal probability
      * @pre 0 &le; pr &le; 1
@@ -196,21 +508,163 @@ public class Trajectory {
     public void removePoint(double pr) {
         if (points.size() > 2 && rng.nextDouble() < pr) {
             int i = rng.nextInt(points.size() - 2) + 1;
-            Point p = points.get(i);
-            length -= (points.get(i - 1).dist(p) + p.dist(points.get(i))) - points.get(i - 1).dist(p);
-            p = points.remove(i);
-            length += points.get(i - 1).dist(p);
-            this.collisionCount = calculateCollisions();
+            int p = points.get(i);
+            length -= (IntPointList.dist(points.get(i - 1), p) + IntPointList.dist(p, points.get(i))) - IntPointList.dist(points.get(i - 1), p);
+            p = points.removeAt(i);
+            pointSet.remove(p);
+            length += IntPointList.dist(points.get(i - 1), p);
+            removeSegment(i);
+            replaceSegment(i - 1);
+            updateFitness();
         }
     }
 
+    /**
+     * mutateNearObstacle method to move a point of a colliding segment next to the obstacle that segment collides
+     * with, with probability pb. No random number is drawn when the trajectory has no collisions or pb is 0.
+     * Nothing changes if the new point is already in the trajectory or outside the free space of the generator.
+     *
+     * @param pb mutation probability
+     * @pre 0 &le; pb &le; 1
+     */
+    public void mutateNearObstacle(double pb) {
+        if (collisionCount == 0 || pb == 0 || points.size() < 3 || rng.nextDouble() >= pb)
+            return;
+        int segment = randomCollidingSegment();
+        // Move the end of the segment that is not fixed, the start and end of the trajectory never move
+        int i = segment == 0 || (segment + 1 < points.size() - 1 && rng.nextBoolean()) ? segment + 1 : segment;
+        int p = detourPoint(randomObstacle(segment), segment);
+        int old = points.get(i);
+        if (pointSet.contains(p) || !generator.isFree(p))
+            return;
+        length -= IntPointList.dist(points.get(i - 1), old) + IntPointList.dist(old, points.get(i + 1));
+        points.set(i, p);
+        pointSet.remove(old);
+        pointSet.add(p);
+        length += IntPointList.dist(points.get(i - 1), p) + IntPointList.dist(p, points.get(i + 1));
+        replaceSegment(i - 1);
+        replaceSegment(i);
+        updateFitness();
+    }
+
+    /**
+     * addPointNearObstacle method to split a colliding segment with a point next to the obstacle it collides with,
+     * with probability pb. No random number is drawn when the trajectory has no collisions or pb is 0.
+     * Nothing changes if the new point is already in the trajectory or outside the free space of the generator.
+     *
+     * @param pb addition probability
+     * @pre 0 &le; pb &le; 1
+     */
+    public void addPointNearObstacle(double pb) {
+        if (collisionCount == 0 || pb == 0 || rng.nextDouble() >= pb)
+            return;
+        int i = randomCollidingSegment();
+        int p = detourPoint(randomObstacle(i), i);
+        if (pointSet.contains(p) || !generator.isFree(p))
+            return;
+        length -= IntPointList.dist(points.get(i), points.get(i + 1));
+        points.add(i + 1, p);
+        pointSet.add(p);
+        length += IntPointList.dist(points.get(i), p) + IntPointList.dist(p, points.get(i + 2));
+        replaceSegment(i);
+        insertSegment(i + 1);
+        updateFitness();
+    }
+
+    /**
+     * @return index of a segment with collisions, chosen at random
+     * @pre collisionCount > 0
+     */
+    private int randomCollidingSegment() {
+        int colliding = 0;
+        for (long[] mask : segmentCollisions)
+            if (!isEmpty(mask)) colliding++;
+        int k = rng.nextInt(colliding);
+        for (int i = 0; ; i++)
+            if (!isEmpty(segmentCollisions.get(i)) && k-- == 0)
+                return i;
+    }
+
+    /**
+     * @param segment index of a segment with collisions
+     * @return one of the obstacles the segment collides with, chosen at random
+     */
+    private Shape randomObstacle(int segment) {
+        long[] mask = segmentCollisions.get(segment);
+        int bits = 0;
+        for (long word : mask) bits += Long.bitCount(word);
+        int k = rng.nextInt(bits);
+        for (int w = 0; ; w++)
+            for (long word = mask[w]; word != 0; word &= word - 1)
+                if (k-- == 0)
+                    return obstacles.get((w << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private static boolean isEmpty(long[] mask) {
+        for (long word : mask)
+            if (word != 0) return false;
+        return true;
+    }
+
+    /**
+     * Picks a point just outside an obstacle that a segment collides with, where a path around the obstacle would turn.
+     * For a polygon it is one of its corners, chosen at random, pushed away from the centroid. For a circle it is the
+     * point of the circle furthest from the segment's line on the side the segment passes, pushed out of the circle.
+     * The point is pushed a few pixels plus a random half-normal distance, so repeated detours spread out.
+     *
+     * @param obstacle obstacle the segment collides with
+     * @param segment  index of the segment
+     * @return packed point, inside the map
+     */
+    private int detourPoint(Shape obstacle, int segment) {
+        double clearance = DETOUR_MARGIN + Math.abs(rng.nextGaussian()) * DETOUR_SPREAD;
+        Point[] corners = obstacle.getPoints();
+        double x;
+        double y;
+        if (obstacle instanceof Circle circle) {
+            Point center = corners[0];
+            double ax = IntPointList.x(points.get(segment));
+            double ay = IntPointList.y(points.get(segment));
+            double dx = IntPointList.x(points.get(segment + 1)) - ax;
+            double dy = IntPointList.y(points.get(segment + 1)) - ay;
+            // Normal of the segment pointing from the center to the segment's line
+            double side = dx * (center.y() - ay) - dy * (center.x() - ax);
+            double sign = side == 0 ? (rng.nextBoolean() ? 1 : -1) : -Math.signum(side);
+            double norm = Math.max(Math.hypot(dx, dy), 1);
+            double distance = circle.getRadius() + clearance;
+            x = center.x() - sign * dy / norm * distance;
+            y = center.y() + sign * dx / norm * distance;
+        } else {
+            double cx = 0;
+            double cy = 0;
+            for (Point corner : corners) {
+                cx += corner.x();
+                cy += corner.y();
+            }
+            cx /= corners.length;
+            cy /= corners.length;
+            Point corner = corners[rng.nextInt(corners.length)];
+            double norm = Math.max(Math.hypot(corner.x() - cx, corner.y() - cy), 1);
+            x = corner.x() + (corner.x() - cx) / norm * clearance;
+            y = corner.y() + (corner.y() - cy) / norm * clearance;
+        }
+        return IntPointList.pack((int) Math.max(0, Math.min(999, Math.round(x))), (int) Math.max(0, Math.min(999, Math.round(y))));
+    }
+
     /**
      * Getter for points.
      *
      * @return points - the list of points that define the trajectory.
      */
     public ArrayList<Point> getPoints() {
-        return new ArrayList<>(points);
+        return points.toPointList();
+    }
+
+    /**
+     * @return number of points that define the trajectory, without copying them
+     */
+    public int pointCount() {
+        return points.size();
     }
 
     /**
@@ -231,6 +685,18 @@ public class Trajectory {
         return collisionCount;
     }
 
+    /**
+     * Reverses the trajectory, the reversed trajectory has the same length and collisions since both only depend on the segments.
+     *
+     * @return trajectory with the same points in reverse order
+     * @post result.getLength() == this.getLength() &amp;&amp; result.getCollisionCount() == this.getCollisionCount()
+     */
+    public Trajectory reverse() {
+        IntPointList reversed = points.copy();
+        reversed.reverse();
+        return new Trajectory(reversed, generator, obstacles, rng);
+    }
+
     /**
      * Concatenates two trajectories by adding the points from the second trajectory to the first trajectory.
      *
@@ -241,9 +707,8 @@ public class Trajectory {
      */
     public Trajectory concatenate(Trajectory other) {
         if (other == null) throw new IllegalArgumentException("other trajectory can't be null");
-        ArrayList<Point> points1 = new ArrayList<>(this.points);
-        ArrayList<Point> points2 = new ArrayList<>(other.getPoints());
-        points1.addAll(points2.subList(1, points2.size()));
+        IntPointList points1 = this.points.copy();
+        points1.addAll(other.points, 1, other.points.size());
         return new Trajectory(points1, generator, obstacles, rng);
     }
 }
@@ -0,0 +1,341 @@
+package simulator;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Class TrajectoryCache, a concurrent cache of planned trajectories shared by every robot on the same map.
+ * Trajectories are keyed by their start and end points packed into a single long, and the cache is bounded by the
+ * total number of points it stores. When it is full, entries are evicted in insertion order, except for those that
+ * were used since they were last looked at, which get a second chance.
+ * A failed plan is only cached for the next FAILED_PLAN_LOOKUPS lookups, since a planner may find the trajectory when
+ * trying again, and is never served for the opposite direction.
+ * Since collisions and length do not depend on the direction of a trajectory, a lookup that misses is served by
+ * reversing the cached trajectory of the opposite direction when there is one.
+ * Concurrent misses on the same trajectory plan it once, the later ones waiting for the first plan. Every entry is
+ * tagged with the version of the cache it was planned in, and clearing the cache starts a new version, so a plan that
+ * was still running when the cache was cleared is not inserted afterwards, and entries of an older version are never
+ * returned.
+ *
+ * @inv capacity > 0
+ * @inv storedPoints() &le; capacity after every insertion
+ */
+public class TrajectoryCache {
+
+    private static final int COORDINATE_BITS = 10;
+    private static final int COORDINATE_MASK = (1 << COORDINATE_BITS) - 1;
+
+    /**
+     * Number of lookups a failed plan is served for before it is planned again.
+     */
+    public static final int FAILED_PLAN_LOOKUPS = 64;
+
+    private final int capacity;
+    private final Map<Long, Entry> entries;
+    private final Queue<Long> insertionOrder;
+    private final Map<Long, CompletableFuture<Trajectory>> planning;
+    private final AtomicLong version;
+    private final AtomicLong storedPoints;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder reverseHits;
+
+    /**
+     * Cache entry, trajectory is null for failed plans, which are served for a limited number of lookups.
+     */
+    private static final class Entry {
+        private final Trajectory trajectory;
+        private final long version;
+        private final int weight;
+        private final AtomicInteger lookupsLeft;
+        private volatile boolean referenced;
+
+        private Entry(Trajectory trajectory, long version) {
+            this.trajectory = trajectory;
+            this.version = version;
+            this.weight = trajectory == null ? 1 : trajectory.pointCount();
+            this.lookupsLeft = trajectory == null ? new AtomicInteger(FAILED_PLAN_LOOKUPS) : null;
+        }
+
+        /**
+         * @return true if the entry is a failed plan that was served for its last lookup
+         */
+        private boolean isExpired() {
+            return lookupsLeft != null && lookupsLeft.get() <= 0;
+        }
+    }
+
+    /**
+     * Constructor for TrajectoryCache class.
+     *
+     * @param capacity maximum number of trajectory points stored in the cache
+     * @pre capacity > 0
+     * @post the cache is empty
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public TrajectoryCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.planning = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+        this.storedPoints = new AtomicLong();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.reverseHits = new LongAdder();
+    }
+
+    /**
+     * Packs the start and end points of a trajectory into a single key, 10 bits per coordinate.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return key of the trajectory from start to end
+     * @pre start != null &amp;&amp; end != null
+     */
+    public static long key(Point start, Point end) {
+        return ((long) start.x() << 3 * COORDINATE_BITS) | ((long) start.y() << 2 * COORDINATE_BITS) | ((long) end.x() << COORDINATE_BITS) | end.y();
+    }
+
+    /**
+     * Unpacks the start point of a key.
+     *
+     * @param key key made by {@link #key(Point, Point)}
+     * @return start point of the key
+     */
+    public static Point start(long key) {
+        return new Point((int) (key >>> 3 * COORDINATE_BITS) & COORDINATE_MASK, (int) (key >>> 2 * COORDINATE_BITS) & COORDINATE_MASK);
+    }
+
+    /**
+     * Unpacks the end point of a key.
+     *
+     * @param key key made by {@link #key(Point, Point)}
+     * @return end point of the key
+     */
+    public static Point end(long key) {
+        return new Point((int) (key >>> COORDINATE_BITS) & COORDINATE_MASK, (int) key & COORDINATE_MASK);
+    }
+
+    /**
+     * Returns the cached trajectory from start to end, planning and caching it if neither it nor the trajectory
+     * from end to start are cached yet. If another thread is already planning the same trajectory, waits for its plan
+     * instead of planning it again. The plan is not cached if the cache was cleared while it was running, and a failed
+     * plan is planned again once it was served for FAILED_PLAN_LOOKUPS lookups.
+     *
+     * @param start   start point
+     * @param end     end point
+     * @param planner plans the trajectory on a miss, may return null if no trajectory is found
+     * @return the trajectory from start to end, or null if it could not be planned
+     * @pre start != null &amp;&amp; end != null &amp;&amp; planner != null
+     */
+    public Trajectory computeIfAbsent(Point start, Point end, Supplier<Trajectory> planner) {
+        long key = key(start, end);
+        while (true) {
+            long current = version.get();
+            Entry entry = get(key, current);
+            if (entry != null && entry.lookupsLeft != null && entry.lookupsLeft.getAndDecrement() <= 0) {
+                // The failed plan expired, plan it again
+                if (entries.remove(key, entry))
+                    storedPoints.addAndGet(-entry.weight);
+                continue;
+            }
+            if (entry != null) {
+                hits.increment();
+                entry.referenced = true;
+                return entry.trajectory;
+            }
+            Entry reverseEntry = get(key(end, start), current);
+            if (reverseEntry != null && reverseEntry.trajectory != null) {
+                hits.increment();
+                reverseHits.increment();
+                reverseEntry.referenced = true;
+                Trajectory reversed = reverseEntry.trajectory.reverse();
+                put(key, new Entry(reversed, current));
+                return reversed;
+            }
+            CompletableFuture<Trajectory> plan = new CompletableFuture<>();
+            CompletableFuture<Trajectory> running = planning.putIfAbsent(key, plan);
+            if (running != null) {
+                hits.increment();
+                try {
+                    return running.join();
+                } catch (CompletionException e) {
+                    // The other plan failed, try again
+                    continue;
+                }
+            }
+            // The entry may have been inserted between the lookup and the claim
+            Entry inserted = get(key, current);
+            if (inserted != null && !inserted.isExpired()) {
+                planning.remove(key, plan);
+                plan.complete(inserted.trajectory);
+                hits.increment();
+                inserted.referenced = true;
+                return inserted.trajectory;
+            }
+            misses.increment();
+            try {
+                Trajectory trajectory = planner.get();
+                put(key, new Entry(trajectory, current));
+                plan.complete(trajectory);
+                return trajectory;
+            } catch (RuntimeException | Error e) {
+                plan.completeExceptionally(e);
+                throw e;
+            } finally {
+                planning.remove(key, plan);
+            }
+        }
+    }
+
+    /**
+     * @param key     key of the entry
+     * @param version version of the cache
+     * @return the entry of the key if it was planned in that version, null otherwise
+     */
+    private Entry get(long key, long version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version ? entry : null;
+    }
+
+    /**
+     * Determines if the trajectory from start to end is cached in that direction, in which case computeIfAbsent
+     * returns it without planning or inserting anything.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return true if the trajectory from start to end, or its failed plan that has not expired, is cached
+     * @pre start != null &amp;&amp; end != null
+     */
+    public boolean contains(Point start, Point end) {
+        Entry entry = get(key(start, end), version.get());
+        return entry != null && !entry.isExpired();
+    }
+
+    /**
+     * Inserts an entry, then evicts entries until the cache fits its capacity again.
+     * Entries of an older version than the cache are not inserted, or removed right away if the cache was cleared
+     * while they were inserted.
+     *
+     * @param key   key of the entry
+     * @param entry entry to insert
+     */
+    private void put(long key, Entry entry) {
+        if (entry.version != version.get())
+            return;
+        Entry previous = entries.putIfAbsent(key, entry);
+        if (previous != null) {
+            // Replace an entry left over from an older version, or a failed plan that expired
+            if ((previous.version == entry.version && !previous.isExpired()) || !entries.replace(key, previous, entry))
+                return;
+            storedPoints.addAndGet(-previous.weight);
+        }
+        insertionOrder.add(key);
+        storedPoints.addAndGet(entry.weight);
+        if (entry.version != version.get() && entries.remove(key, entry))
+            storedPoints.addAndGet(-entry.weight);
+        while (storedPoints.get() > capacity) {
+            Long eldest = insertionOrder.poll();
+            if (eldest == null)
+                break;
+            Entry candidate = entries.get(eldest);
+            if (candidate == null)
+                continue;
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                insertionOrder.add(eldest);
+            } else if (entries.remove(eldest, candidate)) {
+                storedPoints.addAndGet(-candidate.weight);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes every trajectory from the cache, e.g. when they are no longer valid because the map changed, and starts
+     * a new version of the cache. Plans running meanwhile are not inserted when they are done.
+     * Entries are removed one by one, so the points they store are accounted for even when they are inserted or
+     * evicted at the same time.
+     *
+     * @post storedPoints() == 0 if nothing is inserted meanwhile
+     */
+    public void clear() {
+        long current = version.incrementAndGet();
+        for (Long key : entries.keySet()) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version != current && entries.remove(key, entry))
+                storedPoints.addAndGet(-entry.weight);
+        }
+        // Keep the insertion order of the entries inserted meanwhile only
+        for (int i = insertionOrder.size(); i > 0; i--) {
+            Long key = insertionOrder.poll();
+            if (key == null)
+                break;
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == current)
+                insertionOrder.add(key);
+        }
+    }
+
+    /**
+     * @return number of lookups that found a cached trajectory
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups served by reversing the trajectory of the opposite direction, included in the hits
+     */
+    public long getReverseHits() {
+        return reverseHits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to plan the trajectory
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of trajectories evicted to respect the capacity
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return total number of trajectory points currently stored
+     */
+    public long storedPoints() {
+        return storedPoints.get();
+    }
+
+    /**
+     * @return number of trajectories currently stored
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return String representation of the cache counters
+     */
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + " (reversed=" + getReverseHits() + ") misses=" + getMisses() + " evictions=" + getEvictions() + " points=" + storedPoints() + "/" + capacity;
+    }
+}
@@ -3,7 +3,6 @@ package simulator;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
-import java.util.stream.IntStream;
 
 /**
  * Class TrajectoryPopulation, used to perform selection of trajectories based on fitness.
@@ -37,19 +36,40 @@ public class TrajectoryPopulation {
      * @post Creates a population of Trajectory objects with the specified properties.
      */
     public TrajectoryPopulation(Point start, Point end, int n, int[] lengths, PointGenerator generator, List<Shape> obstacles, Random rng) {
+        this(start, end, n, lengths, generator, obstacles, rng, FitnessMode.FEASIBILITY);
+    }
+
+    /**
+     * Constructor for TrajectoryPopulation Class, with trajectories scored with the given fitness mode.
+     *
+     * @param start       starting point of trajectories
+     * @param end         ending point of trajectories
+     * @param n           size of population
+     * @param lengths     lengths of trajectories
+     * @param generator   Point generator
+     * @param obstacles   Obstacles
+     * @param rng         Random number generator
+     * @param fitnessMode how the fitness of the trajectories is calculated
+     * @pre start and end points must be valid Point objects.
+     * @pre n must be greater than 0.
+     * @pre lengths must be a valid array of integers with the same length as n.
+     * @pre fitnessMode != null
+     * @post Creates a population of Trajectory objects with the specified properties.
+     */
+    public TrajectoryPopulation(Point start, Point end, int n, int[] lengths, PointGenerator generator, List<Shape> obstacles, Random rng, FitnessMode fitnessMode) {
         this.individuals = new ArrayList<>();
         this.generator = generator;
         this.rng = rng;
         this.obstacles = obstacles;
         for (int i = 0; i < n; i++) {
-            ArrayList<Point> points = new ArrayList<>();
-            points.add(start);
+            IntPointList points = new IntPointList(lengths[i] + 2);
+            points.add(IntPointList.pack(start));
             for (int j = 0; j < lengths[i]; j++) {
-                Point p = generator.generateGaussianPoint(50, points.get(0), points.get(points.size() - 1));
+                int p = generator.generatePackedGaussianPoint(50, points.get(0), points.get(points.size() - 1));
                 points.add(p);
             }
-            points.add(end);
-            this.individuals.add(new Trajectory(points, generator, obstacles, rng));
+            points.add(IntPointList.pack(end));
+            this.individuals.add(new Trajectory(points, generator, obstacles, rng, fitnessMode));
         }
     }
 
@@ -91,32 +111,87 @@ public class TrajectoryPopulation {
         double average = 0;
         for (Trajectory t : individuals) average += t.fitness();
         average /= individuals.size();
-        return (df.format(maxFitness.fitness()) + " " + df.format(average) + " " + df.format(minFitness.fitness()) + " " + df.format(minCollision.getLength()) + " " + minCollision.calculateCollisions());
+        return (df.format(maxFitness.fitness()) + " " + df.format(average) + " " + df.format(minFitness.fitness()) + " " + df.format(minCollision.getLength()) + " " + minCollision.getCollisionCount());
     }
 
 
     /**
-     * Rank-based selection.
+     * Finds the fittest individuals without sorting the population, keeping the best ones found so far in a heap of
+     * size k, so it takes O(n log k).
+     *
+     * @param individuals individuals to choose from
+     * @param k           number of individuals to find
+     * @return indexes of the k fittest individuals, fittest first; ties go to the lowest index
+     * @pre individuals != null &amp;&amp; 0 &le; k &le; individuals.size()
+     */
+    static int[] fittest(List<Trajectory> individuals, int k) {
+        // Head of the heap is the worst of the k best so far
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingDouble(i -> individuals.get(i).fitness()).thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(k, 1), worstFirst);
+        for (int i = 0; i < individuals.size() && k > 0; i++) {
+            if (best.size() < k) best.add(i);
+            else if (worstFirst.compare(i, best.peek()) > 0) {
+                best.poll();
+                best.add(i);
+            }
+        }
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--)
+            result[i] = best.poll();
+        return result;
+    }
+
+    /**
+     * Rank-based selection. The individual of rank i (1 for the least fit) is picked with weight i; the cumulative
+     * weights are built once and every winner is found by binary search over them.
      *
      * @return winners of selection
      * @pre The population must have a positive size and valid Trajectory objects.
      * @post Returns a new TrajectoryPopulation object containing the winners of the rank-based selection.
      */
     public TrajectoryPopulation rankBasedSelection() {
-        ArrayList<Trajectory> winners = new ArrayList<>();
+        int n = individuals.size();
+        ArrayList<Trajectory> winners = new ArrayList<>(n);
         ArrayList<Trajectory> sortedIndividuals = new ArrayList<>(individuals);
         sortedIndividuals.sort(Comparator.comparingDouble(Trajectory::fitness));
 
-        double totalFitness = IntStream.range(0, sortedIndividuals.size()).mapToDouble(i -> (i + 1)).sum();
+        // cumulative[i] is the total weight of ranks 1..i+1
+        double[] cumulative = new double[n];
+        for (int i = 0; i < n; i++)
+            cumulative[i] = (i > 0 ? cumulative[i - 1] : 0) + (i + 1);
+        double totalFitness = cumulative[n - 1];
 
-        for (int i = 0; i < individuals.size(); i++) {
+        for (int i = 0; i < n; i++) {
             double randomValue = rng.nextDouble() * totalFitness;
-            int index = 0;
-            while (randomValue > 0) {
-                randomValue -= (index + 1);
-                index++;
+            // Winner is the first rank whose cumulative weight reaches the random value
+            int index = Arrays.binarySearch(cumulative, randomValue);
+            winners.add(sortedIndividuals.get(index >= 0 ? index : -index - 1));
+        }
+        return new TrajectoryPopulation(winners, generator, obstacles, rng);
+    }
+
+    /**
+     * Tournament selection, each winner is the fittest of size individuals drawn at random, with repetition.
+     * It needs no sorting, so each generation takes O(n * size).
+     *
+     * @param size number of individuals in each tournament
+     * @return winners of selection
+     * @pre size &ge; 1
+     * @post Returns a new TrajectoryPopulation object, of the same size, containing the winners of the tournaments.
+     * @throws IllegalArgumentException if size is less than 1
+     */
+    public TrajectoryPopulation tournamentSelection(int size) {
+        if (size < 1) throw new IllegalArgumentException("Tournament size must be at least 1");
+        int n = individuals.size();
+        ArrayList<Trajectory> winners = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Trajectory winner = individuals.get(rng.nextInt(n));
+            for (int j = 1; j < size; j++) {
+                Trajectory challenger = individuals.get(rng.nextInt(n));
+                if (challenger.fitness() > winner.fitness())
+                    winner = challenger;
             }
-            winners.add(sortedIndividuals.get(index - 1));
+            winners.add(winner);
         }
         return new TrajectoryPopulation(winners, generator, obstacles, rng);
     }
@@ -0,0 +1,197 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Class VisibilityGraph, a graph whose nodes are points just outside the corners of every obstacle, linked when the
+ * segment between them collides with no obstacle. Circles are wrapped in a regular polygon, so its corners play the
+ * role of the tangent points of the circle.
+ * The graph is built once per map and answers shortest trajectory queries with A*, connecting the start and end
+ * points to the nodes they see.
+ * Corners are pushed out by a margin of a few pixels, less when that lands them inside another obstacle, and left
+ * out when even a single pixel does, so a gap between obstacles only a pixel or two wide may have no node in it, and
+ * paths that must go through such a gap are not found.
+ *
+ * @inv nodes.length == neighbours.length
+ */
+public class VisibilityGraph {
+
+    private static final double MARGIN = 2;
+    private static final int CIRCLE_CORNERS = 12;
+
+    private final ObstacleGrid obstacles;
+    private final Point[] nodes;
+    private final int[][] neighbours;
+
+    /**
+     * Constructor for VisibilityGraph class.
+     *
+     * @param obstacles obstacles of the map
+     * @param occupancy occupancy raster of the same obstacles, corners inside another obstacle are left out
+     * @pre obstacles != null &amp;&amp; occupancy != null
+     * @post every pair of nodes whose segment collides with no obstacle is linked
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public VisibilityGraph(ObstacleGrid obstacles, OccupancyRaster occupancy) {
+        if (obstacles == null || occupancy == null) throw new IllegalArgumentException("Can't be constructed with null arguments");
+        this.obstacles = obstacles;
+        Set<Point> corners = new LinkedHashSet<>();
+        for (Shape obstacle : obstacles)
+            for (List<Point> candidates : corners(obstacle))
+                for (Point corner : candidates)
+                    if (!occupancy.isOccupied(corner)) {
+                        corners.add(corner);
+                        break;
+                    }
+        this.nodes = corners.toArray(new Point[0]);
+        List<List<Integer>> links = new ArrayList<>();
+        for (int i = 0; i < nodes.length; i++)
+            links.add(new ArrayList<>());
+        for (int i = 0; i < nodes.length; i++)
+            for (int j = i + 1; j < nodes.length; j++)
+                if (!obstacles.isObstructed(new LineSegment(nodes[i], nodes[j]))) {
+                    links.get(i).add(j);
+                    links.get(j).add(i);
+                }
+        this.neighbours = new int[nodes.length][];
+        for (int i = 0; i < nodes.length; i++)
+            neighbours[i] = links.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Calculates the corners of an obstacle, pushed away from its center so they lie outside of it.
+     * A circle of radius r is wrapped in a regular polygon whose sides are r + MARGIN away from its center.
+     * Each corner comes with the same corner pushed out less and less, down to a single pixel, the first of them
+     * outside every obstacle being the node, so gaps between obstacles narrower than the margin still get nodes.
+     *
+     * @param obstacle obstacle
+     * @return for each corner of the obstacle, the positions of the corner that are on the map, furthest out first
+     */
+    private List<List<Point>> corners(Shape obstacle) {
+        List<List<Point>> result = new ArrayList<>();
+        Point[] points = obstacle.getPoints();
+        if (obstacle instanceof Circle circle) {
+            for (int k = 0; k < CIRCLE_CORNERS; k++) {
+                double angle = 2 * Math.PI * k / CIRCLE_CORNERS;
+                List<Point> candidates = new ArrayList<>();
+                for (double margin = MARGIN; margin >= 1; margin--) {
+                    double radius = (circle.getRadius() + margin) / Math.cos(Math.PI / CIRCLE_CORNERS);
+                    addCorner(candidates, points[0].x() + radius * Math.cos(angle), points[0].y() + radius * Math.sin(angle));
+                }
+                result.add(candidates);
+            }
+            return result;
+        }
+        double cx = 0, cy = 0;
+        for (Point p : points) {
+            cx += p.x();
+            cy += p.y();
+        }
+        cx /= points.length;
+        cy /= points.length;
+        for (Point p : points) {
+            double dx = p.x() - cx, dy = p.y() - cy;
+            double norm = Math.max(Math.hypot(dx, dy), 1e-9);
+            List<Point> candidates = new ArrayList<>();
+            for (double margin = MARGIN + 1; margin >= 1; margin--)
+                addCorner(candidates, p.x() + margin * dx / norm, p.y() + margin * dy / norm);
+            result.add(candidates);
+        }
+        return result;
+    }
+
+    private void addCorner(List<Point> corners, double x, double y) {
+        long rx = Math.round(x), ry = Math.round(y);
+        if (rx >= 0 && ry >= 0 && rx < OccupancyRaster.SIZE && ry < OccupancyRaster.SIZE)
+            corners.add(new Point((int) rx, (int) ry));
+    }
+
+    /**
+     * Finds the shortest path between two points that collides with no obstacle, going through the nodes of the graph.
+     * A path that only exists through narrow gaps between obstacles may not be found, see the class comment.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return the turning points of the path, from start to end, or null if end can't be reached from start through
+     * the nodes of the graph
+     * @pre start != null &amp;&amp; end != null
+     */
+    public List<Point> shortestPath(Point start, Point end) {
+        if (start.equals(end))
+            return new ArrayList<>(List.of(start));
+        if (!obstacles.isObstructed(new LineSegment(start, end)))
+            return new ArrayList<>(List.of(start, end));
+        int n = nodes.length;
+        // Node n is the start, node n + 1 the end, linked to the nodes they see
+        boolean[] seenByEnd = new boolean[n];
+        List<Integer> seenByStart = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (nodes[i].equals(start) || !obstacles.isObstructed(new LineSegment(start, nodes[i])))
+                seenByStart.add(i);
+            seenByEnd[i] = nodes[i].equals(end) || !obstacles.isObstructed(new LineSegment(nodes[i], end));
+        }
+        double[] distance = new double[n + 2];
+        int[] previous = new int[n + 2];
+        boolean[] closed = new boolean[n + 2];
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        distance[n] = 0;
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        open.add(new double[]{start.dist(end), n});
+        while (!open.isEmpty()) {
+            int current = (int) open.poll()[1];
+            if (closed[current]) continue;
+            closed[current] = true;
+            if (current == n + 1) break;
+            Point from = current == n ? start : nodes[current];
+            if (current == n) {
+                for (int next : seenByStart)
+                    relax(current, next, from, nodes[next], end, distance, previous, open);
+                continue;
+            }
+            for (int next : neighbours[current])
+                relax(current, next, from, nodes[next], end, distance, previous, open);
+            if (seenByEnd[current])
+                relax(current, n + 1, from, end, end, distance, previous, open);
+        }
+        if (previous[n + 1] == -1)
+            return null;
+        List<Point> path = new ArrayList<>();
+        for (int node = n + 1; node != -1; node = previous[node])
+            path.add(node == n ? start : node == n + 1 ? end : nodes[node]);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Relaxes the link from one node to another, queueing the other node if its distance improved.
+     */
+    private void relax(int current, int next, Point from, Point to, Point end, double[] distance, int[] previous, PriorityQueue<double[]> open) {
+        double candidate = distance[current] + from.dist(to);
+        if (candidate < distance[next]) {
+            distance[next] = candidate;
+            previous[next] = current;
+            open.add(new double[]{candidate + to.dist(end), next});
+        }
+    }
+
+    /**
+     * @return the obstacles the graph was built for
+     */
+    public ObstacleGrid obstacles() {
+        return obstacles;
+    }
+
+    /**
+     * @return number of nodes of the graph
+     */
+    public int size() {
+        return nodes.length;
+    }
+}
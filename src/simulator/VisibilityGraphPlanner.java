@@ -0,0 +1,58 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class VisibilityGraphPlanner, a deterministic planner that finds the shortest trajectory through the corners of the
+ * obstacles, using the visibility graph of the delivery map.
+ * The graph is built once per map, the first time it is needed, so each trajectory only costs an A* search.
+ * The graph has no node in gaps between obstacles narrower than the margin its corners are pushed out by, so when it
+ * finds no path the trajectory is searched for on the pixels with a GridPathPlanner instead.
+ *
+ * @inv deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null
+ */
+public class VisibilityGraphPlanner implements PathPlanner {
+
+    private final DeliveryMap deliveryMap;
+    private final PointGenerator generator;
+    private final Random rng;
+    private final GridPathPlanner fallback;
+
+    /**
+     * Constructor for VisibilityGraphPlanner class.
+     *
+     * @param deliveryMap map whose obstacles trajectories must avoid
+     * @param generator   point generator given to the planned trajectories
+     * @param rng         random number generator given to the planned trajectories
+     * @pre deliveryMap != null &amp;&amp; generator != null &amp;&amp; rng != null
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public VisibilityGraphPlanner(DeliveryMap deliveryMap, PointGenerator generator, Random rng) {
+        if (deliveryMap == null || generator == null || rng == null)
+            throw new IllegalArgumentException("Can't be constructed with null arguments");
+        this.deliveryMap = deliveryMap;
+        this.generator = generator;
+        this.rng = rng;
+        this.fallback = new GridPathPlanner(deliveryMap, generator, rng);
+    }
+
+    /**
+     * Plans the shortest trajectory through the visibility graph of the map, or along the pixels if the graph finds none.
+     *
+     * @param start start point
+     * @param end   end point
+     * @return a trajectory from start to end with no collisions, or null if neither the graph nor the pixel search
+     * reaches end from start
+     * @pre start != null &amp;&amp; end != null
+     */
+    @Override
+    public Trajectory plan(Point start, Point end) {
+        VisibilityGraph graph = deliveryMap.visibilityGraph();
+        List<Point> path = graph.shortestPath(start, end);
+        if (path == null)
+            return fallback.plan(start, end);
+        return new Trajectory(new ArrayList<>(path), generator, graph.obstacles(), rng);
+    }
+}
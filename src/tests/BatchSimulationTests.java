@@ -0,0 +1,84 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSimulationTests {
+
+    @Test
+    void testScriptedRequestsAreDelivered() {
+        BatchConfig config = new BatchConfig.Builder().robots(2).obstacles(0).maxTicks(5000)
+                .request(0, new Request(new Point(100, 100), new Point(200, 100)))
+                .request(10, new Request(new Point(900, 900), new Point(900, 800)))
+                .build();
+        BatchReport report = new BatchSimulation(config).run();
+        assertEquals(2, report.released());
+        assertEquals(2, report.delivered());
+        assertTrue(report.ticks() < 5000, "The run should stop once every request is delivered");
+        // The first robot waits at (15, 15), so it needs at least 85 ticks to reach the start and 100 to deliver
+        assertTrue(report.meanLatency() >= 185);
+        assertTrue(report.p99Latency() >= report.meanLatency());
+        assertTrue(report.ticksPerSecond() > 0);
+        assertTrue(report.plannerTimeShare() > 0 && report.plannerTimeShare() <= 1);
+        assertTrue(report.toString().contains("Deliveries completed: 2 of 2"));
+    }
+
+    @Test
+    void testRunsAreRepeatable() {
+        BatchConfig config = new BatchConfig.Builder().robots(5).obstacles(10).randomRequests(20, 30).maxTicks(20000).seed(7).build();
+        BatchReport first = new BatchSimulation(config).run();
+        BatchReport second = new BatchSimulation(config).run();
+        assertEquals(20, first.released());
+        assertEquals(first.ticks(), second.ticks());
+        assertEquals(first.delivered(), second.delivered());
+        assertEquals(first.meanLatency(), second.meanLatency());
+        assertEquals(first.p99Latency(), second.p99Latency());
+    }
+
+    @Test
+    void testEventEngineMatchesTickEngine() {
+        for (int seed = 0; seed < 3; seed++) {
+            BatchConfig.Builder builder = new BatchConfig.Builder().robots(3).obstacles(5 * seed).randomRequests(15, 200).maxTicks(100000).seed(seed);
+            BatchReport ticks = new BatchSimulation(builder.engine(SimulationEngine.TICK).build()).run();
+            BatchReport events = new BatchSimulation(builder.engine(SimulationEngine.EVENT).build()).run();
+            assertEquals(ticks.ticks(), events.ticks());
+            assertEquals(ticks.delivered(), events.delivered());
+            assertEquals(ticks.meanLatency(), events.meanLatency());
+            assertEquals(ticks.p99Latency(), events.p99Latency());
+        }
+    }
+
+    @Test
+    void testRunStopsAtMaxTicks() {
+        BatchConfig config = new BatchConfig.Builder().robots(1).obstacles(0).maxTicks(50).request(0, new Request(new Point(900, 900), new Point(100, 100))).build();
+        BatchReport report = new BatchSimulation(config).run();
+        assertEquals(50, report.ticks());
+        assertEquals(0, report.delivered());
+        assertTrue(Double.isNaN(report.meanLatency()));
+    }
+
+    @Test
+    void testInvalidConfigs() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchConfig.Builder().robots(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new BatchConfig.Builder().randomRequests(5, 0).build());
+        assertThrows(IllegalArgumentException.class, () -> new BatchConfig.Builder().request(-1, new Request(new Point(100, 100), new Point(200, 200))));
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulation(null));
+        BatchConfig outOfBounds = new BatchConfig.Builder().obstacles(0).request(0, new Request(new Point(10, 10), new Point(200, 200))).build();
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulation(outOfBounds).run());
+    }
+
+    @Test
+    void testBatchDispatchEventEngineMatchesTickEngine() {
+        for (int seed = 0; seed < 3; seed++) {
+            BatchConfig.Builder builder = new BatchConfig.Builder().robots(4).obstacles(5 * seed).randomRequests(15, 5).maxTicks(100000).seed(seed).dispatch(DispatchMode.BATCH);
+            BatchReport ticks = new BatchSimulation(builder.engine(SimulationEngine.TICK).build()).run();
+            BatchReport events = new BatchSimulation(builder.engine(SimulationEngine.EVENT).build()).run();
+            assertEquals(ticks.ticks(), events.ticks());
+            assertEquals(ticks.delivered(), events.delivered());
+            assertEquals(ticks.meanLatency(), events.meanLatency());
+            assertEquals(ticks.p99Latency(), events.p99Latency());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistanceFieldTests {
+
+    @Test
+    void testOpenMapGivesOctileDistances() {
+        DistanceField field = new DistanceField(new OccupancyRaster(new ArrayList<>()), new Point(100, 100));
+        assertEquals(new Point(100, 100), field.target());
+        assertEquals(0, field.distance(new Point(100, 100)));
+        assertEquals(50, field.distance(new Point(150, 100)), 1e-3);
+        assertEquals(30 * Math.sqrt(2) + 20, field.distance(new Point(130, 150)), 1e-3);
+        assertEquals(100 * Math.sqrt(2), field.distance(new Point(0, 0)), 1e-3);
+        assertTrue(field.anyAngleDistance(new Point(130, 150)) <= new Point(130, 150).dist(new Point(100, 100)));
+    }
+
+    @Test
+    void testDistancesGoAroundObstacles() {
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        // Wall from y = 0 to y = 800 between the target and the point
+        obstacles.add(new Rectangle(new Point[]{new Point(490, 0), new Point(510, 0), new Point(510, 800), new Point(490, 800)}));
+        obstacles.add(new Circle(new Point(200, 900), 30));
+        DistanceField field = new DistanceField(new OccupancyRaster(obstacles), new Point(400, 100));
+        double around = field.distance(new Point(600, 100));
+        assertTrue(around > 2 * 700, "The path should go around the end of the wall, got " + around);
+        assertTrue(Double.isInfinite(field.distance(new Point(200, 900))), "Points inside obstacles cannot reach the target");
+        assertThrows(IllegalArgumentException.class, () -> new DistanceField(null, new Point(0, 0)));
+    }
+
+    @Test
+    void testCoarseFieldsStayCloseToTheExactDistances() {
+        OccupancyRaster raster = new OccupancyRaster(new ArrayList<>());
+        DistanceField exact = new DistanceField(raster, new Point(100, 100));
+        DistanceField coarse = new DistanceField(raster, new Point(100, 100), 4);
+        assertEquals(4, coarse.cell());
+        for (Point p : List.of(new Point(100, 100), new Point(150, 100), new Point(130, 150), new Point(999, 999)))
+            assertEquals(exact.distance(p), coarse.distance(p), 4 * Math.sqrt(2) + 1e-3);
+        assertThrows(IllegalArgumentException.class, () -> new DistanceField(raster, new Point(0, 0), 0));
+    }
+
+    @Test
+    void testDeliveryMapDropsFieldsWhenObstaclesAreAdded() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Point station = new Point(100, 500);
+        DistanceField field = map.chargingStationField(station);
+        assertEquals(station, field.target());
+        assertSame(field, map.chargingStationField(station));
+        assertEquals(800, field.distance(new Point(900, 500)), 8);
+        map.addObstacle(new Rectangle(new Point[]{new Point(490, 100), new Point(510, 100), new Point(510, 900), new Point(490, 900)}));
+        DistanceField rebuilt = map.chargingStationField(station);
+        assertNotSame(field, rebuilt);
+        assertTrue(rebuilt.distance(new Point(900, 500)) > 800, "New obstacles should lengthen the distances");
+        assertNotSame(rebuilt, map.chargingStationField(new Point(900, 900)));
+    }
+}
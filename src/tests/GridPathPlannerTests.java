@@ -0,0 +1,101 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridPathPlannerTests {
+
+    private GridPathPlanner planner(DeliveryMap map) {
+        return new GridPathPlanner(map, new PointGenerator(new Random(0)), new Random(0));
+    }
+
+    @Test
+    void testOctilePathOnEmptyMap() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Trajectory trajectory = planner(map).plan(new Point(100, 100), new Point(400, 200));
+        assertEquals(3, trajectory.getPoints().size());
+        assertEquals(200 + 100 * Math.sqrt(2), trajectory.getLength(), 1e-9);
+        assertEquals(List.of(new Point(100, 100)), planner(map).plan(new Point(100, 100), new Point(100, 100)).getPoints());
+    }
+
+    @Test
+    void testTrajectoriesAreClearOnRandomMaps() {
+        Random rng = new Random(5);
+        for (int t = 0; t < 5; t++) {
+            ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+            List<Shape> obstacles = new ArrayList<>();
+            for (int i = 0; i < 25; i++)
+                obstacles.add(shapeGenerator.generateShape(ShapeType.values()[i % 3]));
+            DeliveryMap map = new DeliveryMap(obstacles);
+            GridPathPlanner planner = planner(map);
+            for (int q = 0; q < 10; q++) {
+                Point start = new Point(rng.nextInt(900) + 50, rng.nextInt(900) + 50);
+                Point end = new Point(rng.nextInt(900) + 50, rng.nextInt(900) + 50);
+                if (!map.isDeliveryRequestValid(new Request(start, end))) continue;
+                Trajectory trajectory = planner.plan(start, end);
+                if (trajectory == null) continue;
+                assertEquals(0, trajectory.getCollisionCount());
+                assertTrue(map.occupancy().isTrajectoryClear(trajectory));
+                List<Point> points = trajectory.getPoints();
+                for (int i = 0; i < points.size() - 1; i++) {
+                    int dx = Math.abs(points.get(i + 1).x() - points.get(i).x());
+                    int dy = Math.abs(points.get(i + 1).y() - points.get(i).y());
+                    assertTrue(dx == 0 || dy == 0 || dx == dy, "Segments must be straight or diagonal");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLeavesPointsNextToObstacles() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Rectangle(new Point[]{new Point(490, 0), new Point(510, 0), new Point(510, 900), new Point(490, 900)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        // On the edge of the wall, every neighbour is inside the grown wall
+        Point start = new Point(510, 500);
+        assertFalse(map.occupancy().isOccupied(start));
+        Trajectory trajectory = planner(map).plan(start, new Point(900, 500));
+        assertNotNull(trajectory);
+        assertEquals(390, trajectory.getLength(), 1e-9);
+        assertNotNull(planner(map).plan(new Point(900, 500), start));
+    }
+
+    @Test
+    void testGoesAroundWall() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Rectangle(new Point[]{new Point(490, 0), new Point(510, 0), new Point(510, 900), new Point(490, 900)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        Trajectory trajectory = planner(map).plan(new Point(100, 500), new Point(900, 500));
+        assertNotNull(trajectory);
+        assertEquals(0, trajectory.getCollisionCount());
+        assertTrue(trajectory.getPoints().stream().anyMatch(p -> p.y() > 900));
+    }
+
+    @Test
+    void testUnreachable() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 50));
+        obstacles.add(new Rectangle(new Point[]{new Point(490, 0), new Point(510, 0), new Point(510, 999), new Point(490, 999)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        assertNull(planner(map).plan(new Point(100, 100), new Point(500, 500)));
+        assertNull(planner(map).plan(new Point(100, 100), new Point(900, 100)));
+        assertThrows(IllegalArgumentException.class, () -> new GridPathPlanner(map, null, new Random(0)));
+    }
+
+    @Test
+    void testReplansAfterObstacleIsAdded() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        GridPathPlanner planner = planner(map);
+        assertEquals(2, planner.plan(new Point(100, 500), new Point(900, 500)).getPoints().size());
+        map.addObstacle(new Circle(new Point(500, 500), 50));
+        Trajectory trajectory = planner.plan(new Point(100, 500), new Point(900, 500));
+        assertTrue(trajectory.getPoints().size() > 2);
+        assertEquals(0, trajectory.getCollisionCount());
+    }
+}
@@ -0,0 +1,94 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.HungarianAssignment;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HungarianAssignmentTests {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    void testSquareMatrix() {
+        double[][] cost = {{4, 1, 3}, {2, 0, 5}, {3, 2, 2}};
+        assertArrayEquals(new int[]{1, 0, 2}, HungarianAssignment.solve(cost));
+    }
+
+    @Test
+    void testMoreRowsThanColumns() {
+        double[][] cost = {{5, 9}, {1, 8}, {7, 2}};
+        assertArrayEquals(new int[]{-1, 0, 1}, HungarianAssignment.solve(cost));
+    }
+
+    @Test
+    void testInfeasiblePairsAreLeftOut() {
+        double[][] cost = {{INF, INF}, {1, INF}};
+        assertArrayEquals(new int[]{-1, 0}, HungarianAssignment.solve(cost));
+        assertArrayEquals(new int[]{-1}, HungarianAssignment.solve(new double[][]{{INF, INF}}));
+    }
+
+    @Test
+    void testMostPairsBeforeLeastCost() {
+        // Pairing row 0 with column 0 is cheapest, but leaves row 1 alone
+        double[][] cost = {{1, 100}, {2, INF}};
+        assertArrayEquals(new int[]{1, 0}, HungarianAssignment.solve(cost));
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random rng = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 1 + rng.nextInt(5);
+            int columns = 1 + rng.nextInt(5);
+            double[][] cost = new double[rows][columns];
+            for (int i = 0; i < rows; i++)
+                for (int j = 0; j < columns; j++)
+                    cost[i][j] = rng.nextInt(4) == 0 ? INF : rng.nextInt(100);
+            int[] pairs = HungarianAssignment.solve(cost);
+            double[] best = bruteForce(cost, 0, new boolean[columns]);
+            int count = 0;
+            double total = 0;
+            boolean[] used = new boolean[columns];
+            for (int i = 0; i < rows; i++) {
+                if (pairs[i] < 0) continue;
+                assertFalse(used[pairs[i]]);
+                used[pairs[i]] = true;
+                assertNotEquals(INF, cost[i][pairs[i]]);
+                count++;
+                total += cost[i][pairs[i]];
+            }
+            assertEquals(best[0], count);
+            assertEquals(best[1], total, 1e-9);
+        }
+    }
+
+    @Test
+    void testInvalidCosts() {
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(null));
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(new double[][]{{1, 2}, {3}}));
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(new double[][]{{Double.NaN}}));
+        assertArrayEquals(new int[0], HungarianAssignment.solve(new double[0][0]));
+    }
+
+    /**
+     * @return the most pairs of finite cost for the rows from row on, and the least total cost among those pairings
+     */
+    private static double[] bruteForce(double[][] cost, int row, boolean[] used) {
+        if (row == cost.length)
+            return new double[]{0, 0};
+        double[] best = bruteForce(cost, row + 1, used);
+        for (int j = 0; j < used.length; j++) {
+            if (used[j] || cost[row][j] == INF) continue;
+            used[j] = true;
+            double[] rest = bruteForce(cost, row + 1, used);
+            used[j] = false;
+            double[] candidate = {rest[0] + 1, rest[1] + cost[row][j]};
+            if (candidate[0] > best[0] || (candidate[0] == best[0] && candidate[1] < best[1]))
+                best = candidate;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,88 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntPointListTests {
+
+    @Test
+    void testPackRoundTrip() {
+        for (int x = 0; x < 1000; x += 37)
+            for (int y = 0; y < 1000; y += 41) {
+                int packed = IntPointList.pack(x, y);
+                assertEquals(x, IntPointList.x(packed));
+                assertEquals(y, IntPointList.y(packed));
+                assertEquals(new Point(x, y), IntPointList.unpack(packed));
+            }
+        assertEquals(new Point(3, 4).dist(new Point(0, 0)), IntPointList.dist(IntPointList.pack(3, 4), IntPointList.pack(0, 0)));
+    }
+
+    @Test
+    void testListOperations() {
+        IntPointList list = IntPointList.of(List.of(new Point(1, 1), new Point(2, 2)));
+        list.add(1, IntPointList.pack(5, 5));
+        list.add(IntPointList.pack(9, 9));
+        assertEquals(4, list.size());
+        assertEquals(IntPointList.pack(2, 2), list.set(2, IntPointList.pack(7, 7)));
+        assertEquals(IntPointList.pack(5, 5), list.removeAt(1));
+        assertEquals(List.of(new Point(1, 1), new Point(7, 7), new Point(9, 9)), list.toPointList());
+        IntPointList reversed = list.copy();
+        reversed.reverse();
+        assertEquals(List.of(new Point(9, 9), new Point(7, 7), new Point(1, 1)), reversed.toPointList());
+        assertNotEquals(list, reversed);
+        reversed.reverse();
+        assertEquals(list, reversed);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+    }
+
+    @Test
+    void testPointSetAgreesWithHashSet() {
+        Random rng = new Random(0);
+        PointSet set = new PointSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int t = 0; t < 20000; t++) {
+            int packed = IntPointList.pack(rng.nextInt(40), rng.nextInt(40));
+            if (rng.nextBoolean())
+                assertEquals(expected.add(packed), set.add(packed));
+            else
+                assertEquals(expected.remove(packed), set.remove(packed));
+            assertEquals(expected.size(), set.size());
+        }
+        for (int x = 0; x < 40; x++)
+            for (int y = 0; y < 40; y++)
+                assertEquals(expected.contains(IntPointList.pack(x, y)), set.contains(IntPointList.pack(x, y)));
+    }
+
+    @Test
+    void testPackedLineMatchesDrawLine() {
+        Random rng = new Random(1);
+        for (int t = 0; t < 200; t++) {
+            LineSegment segment = new LineSegment(new Point(rng.nextInt(1000), rng.nextInt(1000)), new Point(rng.nextInt(1000), rng.nextInt(1000)));
+            assertEquals(new ArrayList<>(segment.drawLine()), segment.drawPackedLine().toPointList());
+        }
+    }
+
+    @Test
+    void testTrajectoryCopyIsIndependent() {
+        Random rng = new Random(2);
+        PointGenerator generator = new PointGenerator(rng);
+        ArrayList<Point> points = new ArrayList<>(List.of(new Point(10, 10), new Point(200, 300), new Point(500, 500), new Point(900, 900)));
+        List<Shape> obstacles = List.of(new Circle(new Point(400, 400), 60));
+        Trajectory trajectory = new Trajectory(points, generator, obstacles, rng);
+        Trajectory copy = trajectory.copy(generator, rng);
+        assertEquals(trajectory.getPoints(), copy.getPoints());
+        assertEquals(trajectory.getCollisionCount(), copy.getCollisionCount());
+        for (int i = 0; i < 50; i++)
+            copy.mutate(1);
+        assertEquals(points, trajectory.getPoints());
+        assertEquals(copy.calculateCollisions(), copy.getCollisionCount());
+    }
+}
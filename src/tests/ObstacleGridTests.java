@@ -0,0 +1,80 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObstacleGridTests {
+
+    private List<Shape> randomObstacles(Random rng, int n) {
+        ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+        List<Shape> obstacles = new ArrayList<>();
+        ShapeType[] types = ShapeType.values();
+        for (int i = 0; i < n; i++)
+            obstacles.add(shapeGenerator.generateShape(types[i % types.length]));
+        return obstacles;
+    }
+
+    @Test
+    void testCountsSameCollisionsAsLinearScan() {
+        Random rng = new Random(0);
+        List<Shape> obstacles = randomObstacles(rng, 60);
+        ObstacleGrid grid = new ObstacleGrid(obstacles, 37);
+        for (int t = 0; t < 500; t++) {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(new Point(rng.nextInt(1000), rng.nextInt(1000)));
+            for (int i = 0; i < 3; i++) {
+                Point next;
+                do next = new Point(rng.nextInt(1000), rng.nextInt(1000));
+                while (points.contains(next));
+                points.add(next);
+            }
+            Trajectory linear = new Trajectory(points, new PointGenerator(rng), new ArrayList<>(obstacles), rng);
+            Trajectory indexed = new Trajectory(points, new PointGenerator(rng), grid, rng);
+            assertEquals(linear.getCollisionCount(), indexed.getCollisionCount());
+        }
+    }
+
+    @Test
+    void testPointQueries() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(100, 100), 30));
+        obstacles.add(new Rectangle(new Point[]{new Point(400, 400), new Point(500, 400), new Point(500, 500), new Point(400, 500)}));
+        ObstacleGrid grid = new ObstacleGrid(obstacles);
+        assertTrue(grid.isObstructed(new Point(120, 110)));
+        assertTrue(grid.isObstructed(new Point(450, 450)));
+        assertFalse(grid.isObstructed(new Point(200, 200)));
+        assertEquals(2, grid.size());
+        assertSame(obstacles.get(1), grid.get(1));
+    }
+
+    @Test
+    void testSegmentQueries() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 10));
+        ObstacleGrid grid = new ObstacleGrid(obstacles);
+        assertTrue(grid.isObstructed(new LineSegment(new Point(0, 0), new Point(999, 999))));
+        assertFalse(grid.isObstructed(new LineSegment(new Point(0, 999), new Point(400, 600))));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new ObstacleGrid(null));
+        assertThrows(IllegalArgumentException.class, () -> new ObstacleGrid(new ArrayList<>(), 0));
+    }
+
+    @Test
+    void testMapRebuildsGridWhenObstacleIsAdded() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Request request = new Request(new Point(100, 100), new Point(200, 200));
+        assertTrue(map.isDeliveryRequestValid(request));
+        map.addObstacle(new Circle(new Point(100, 100), 5));
+        assertTrue(map.obstacleGrid().isObstructed(new Point(100, 100)));
+        assertFalse(map.isDeliveryRequestValid(request));
+    }
+}
@@ -0,0 +1,108 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccupancyRasterTests {
+
+    @Test
+    void testAgreesWithSurrounds() {
+        Random rng = new Random(0);
+        ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+        List<Shape> obstacles = new ArrayList<>();
+        for (ShapeType type : ShapeType.values())
+            for (int i = 0; i < 5; i++)
+                obstacles.add(shapeGenerator.generateShape(type));
+        OccupancyRaster raster = new OccupancyRaster(obstacles);
+        for (int t = 0; t < 20000; t++) {
+            Point p = new Point(rng.nextInt(1000), rng.nextInt(1000));
+            boolean surrounded = obstacles.stream().anyMatch(obstacle -> obstacle.surrounds(p));
+            assertEquals(surrounded, raster.isOccupied(p));
+        }
+    }
+
+    @Test
+    void testSegmentClearWalksDrawLinePixels() {
+        Random rng = new Random(1);
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 40));
+        obstacles.add(new Triangle(new Point[]{new Point(100, 800), new Point(300, 800), new Point(200, 950)}));
+        OccupancyRaster raster = new OccupancyRaster(obstacles);
+        for (int t = 0; t < 1000; t++) {
+            Point p1 = new Point(rng.nextInt(1000), rng.nextInt(1000));
+            Point p2 = new Point(rng.nextInt(1000), rng.nextInt(1000));
+            if (p1.equals(p2)) continue;
+            LineSegment segment = new LineSegment(p1, p2);
+            boolean clear = segment.drawLine().stream().noneMatch(raster::isOccupied);
+            assertEquals(clear, raster.isSegmentClear(segment));
+        }
+    }
+
+    @Test
+    void testTrajectoryClear() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Rectangle(new Point[]{new Point(400, 400), new Point(600, 400), new Point(600, 600), new Point(400, 600)}));
+        OccupancyRaster raster = new OccupancyRaster(obstacles);
+        Random rng = new Random(0);
+        ArrayList<Point> around = new ArrayList<>(List.of(new Point(300, 300), new Point(300, 700), new Point(700, 700)));
+        ArrayList<Point> through = new ArrayList<>(List.of(new Point(300, 300), new Point(700, 700)));
+        assertTrue(raster.isTrajectoryClear(new Trajectory(around, new PointGenerator(rng), obstacles, rng)));
+        assertFalse(raster.isTrajectoryClear(new Trajectory(through, new PointGenerator(rng), obstacles, rng)));
+    }
+
+    @Test
+    void testMapRebuildsRasterWhenObstacleIsAdded() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        assertEquals(0, map.occupancy().occupiedPixels());
+        map.addObstacle(new Circle(new Point(100, 100), 1));
+        assertEquals(5, map.occupancy().occupiedPixels());
+        assertThrows(IllegalArgumentException.class, () -> new OccupancyRaster(null));
+    }
+
+    @Test
+    void testInflateAndOutlines() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(100, 100), 1));
+        OccupancyRaster raster = new OccupancyRaster(obstacles);
+        assertEquals(5, raster.occupiedPixels());
+        OccupancyRaster inflated = raster.inflate(1);
+        assertEquals(21, inflated.occupiedPixels());
+        assertTrue(inflated.isOccupied(102, 100));
+        assertFalse(inflated.isOccupied(102, 102));
+        assertEquals(5, raster.inflate(0).occupiedPixels());
+        assertThrows(IllegalArgumentException.class, () -> raster.inflate(-1));
+        List<Shape> sliver = new ArrayList<>();
+        sliver.add(new Triangle(new Point[]{new Point(10, 10), new Point(500, 11), new Point(500, 12)}));
+        OccupancyRaster outlined = new OccupancyRaster(sliver).withOutlines(sliver);
+        assertTrue(outlined.isOccupied(10, 10));
+        assertTrue(outlined.isOccupied(250, 11));
+    }
+
+    @Test
+    void testFreePixelsAreFoundByRank() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 40));
+        OccupancyRaster raster = new OccupancyRaster(obstacles);
+        assertEquals(1000 * 1000, raster.freePixels() + raster.occupiedPixels());
+        assertEquals(IntPointList.pack(0, 0), raster.freePixel(0));
+        assertEquals(IntPointList.pack(999, 999), raster.freePixel(raster.freePixels() - 1));
+        int rank = 0;
+        for (int y = 455; y < 545; y++)
+            for (int x = 0; x < 1000; x++)
+                if (!raster.isOccupied(x, y) && rank++ % 97 == 0)
+                    assertEquals(IntPointList.pack(x, y), raster.freePixel(455 * 1000 + rank - 1));
+        Random rng = new Random(2);
+        for (int t = 0; t < 1000; t++) {
+            int pixel = raster.freePixel(rng.nextInt(raster.freePixels()));
+            assertFalse(raster.isOccupied(IntPointList.x(pixel), IntPointList.y(pixel)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> raster.freePixel(raster.freePixels()));
+        assertThrows(IllegalArgumentException.class, () -> raster.freePixel(-1));
+    }
+}
@@ -0,0 +1,66 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterSweepTests {
+
+    private static ParameterSweep.Builder smallSweep() {
+        return new ParameterSweep.Builder().robots(1, 3).obstacles(0).pm(0.3, 0.5).seeds(1, 2).requests(4, 50).maxTicks(20000);
+    }
+
+    @Test
+    void testOneResultPerConfiguration() throws InterruptedException {
+        ParameterSweep sweep = smallSweep().threads(4).build();
+        List<ParameterSweep.Result> results = sweep.run();
+        assertEquals(4, sweep.configurations().size());
+        assertEquals(4, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ParameterSweep.Result result = results.get(i);
+            assertEquals(sweep.configurations().get(i), result.configuration());
+            assertEquals(2, result.reports().size());
+            assertEquals(8, result.released());
+            assertTrue(result.delivered() <= result.released());
+        }
+        assertEquals(new ParameterSweep.Configuration(1, 0, 0.3, 0.3, 0.2), results.get(0).configuration());
+        assertEquals(new ParameterSweep.Configuration(3, 0, 0.5, 0.3, 0.2), results.get(3).configuration());
+    }
+
+    @Test
+    void testParallelRunsMatchSequentialRuns() throws InterruptedException {
+        // Obstacles make the planners search for more than one generation
+        List<ParameterSweep.Result> parallel = smallSweep().obstacles(8).threads(4).build().run();
+        List<ParameterSweep.Result> sequential = smallSweep().obstacles(8).threads(1).build().run();
+        for (int i = 0; i < parallel.size(); i++) {
+            assertEquals(sequential.get(i).delivered(), parallel.get(i).delivered());
+            assertEquals(sequential.get(i).meanLatency(), parallel.get(i).meanLatency());
+            assertEquals(sequential.get(i).throughput(), parallel.get(i).throughput());
+        }
+    }
+
+    @Test
+    void testCsvHasHeaderAndOneRowPerConfiguration() throws Exception {
+        List<ParameterSweep.Result> results = smallSweep().build().run();
+        StringWriter writer = new StringWriter();
+        ParameterSweep.writeCsv(results, writer);
+        String[] lines = writer.toString().split("\\R");
+        assertEquals(5, lines.length);
+        assertEquals(ParameterSweep.CSV_HEADER, lines[0]);
+        int columns = ParameterSweep.CSV_HEADER.split(",").length;
+        for (int i = 1; i < lines.length; i++)
+            assertEquals(columns, lines[i].split(",").length);
+        assertTrue(lines[1].startsWith("1,0,0.3,0.3,0.2,2,8,"));
+    }
+
+    @Test
+    void testEmptyGridThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep.Builder().robots().build());
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep.Builder().seeds().build());
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep.Builder().threads(0).build());
+    }
+}
@@ -3,8 +3,13 @@ package tests;
 import org.junit.jupiter.api.Test;
 import simulator.*;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -135,4 +140,156 @@ class PlannerTests {
         assertEquals(7, trajectory.getPoints().size(), "The trajectory found should have exactly 7 points");
     }
 
+    @Test
+    void testSeededRunIsReproducibleAcrossPools() {
+        Point start = new Point(10, 10);
+        Point end = new Point(990, 990);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        int[] lengths = new Random(7).ints(200, 0, 2).toArray();
+
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            Random rng1 = new Random(42);
+            Planner sequential = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(end).lengths(lengths).generator(new PointGenerator(rng1)).obstacles(obstacles).rng(rng1).pool(sequentialPool).build();
+            Random rng2 = new Random(42);
+            Planner parallel = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(end).lengths(lengths).generator(new PointGenerator(rng2)).obstacles(obstacles).rng(rng2).pool(parallelPool).build();
+
+            Trajectory trajectory1 = sequential.findTrajectory();
+            Trajectory trajectory2 = parallel.findTrajectory();
+            assertNotNull(trajectory1, "The trajectory found should not be null");
+            assertEquals(trajectory1.toString(), trajectory2.toString(), "Seeded runs should find the same trajectory whatever the pool size");
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    @Test
+    void testIslandModelFindsTrajectory() {
+        Point start = new Point(10, 10);
+        Point end = new Point(990, 990);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        int[] lengths = new Random(7).ints(50, 0, 2).toArray();
+
+        Random rng1 = new Random(42);
+        Planner planner1 = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(end).lengths(lengths).generator(new PointGenerator(rng1)).obstacles(obstacles).rng(rng1).islands(4).migrationInterval(5).migrationSize(3).build();
+        Random rng2 = new Random(42);
+        Planner planner2 = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(end).lengths(lengths).generator(new PointGenerator(rng2)).obstacles(obstacles).rng(rng2).islands(4).migrationInterval(5).migrationSize(3).build();
+
+        Trajectory trajectory1 = planner1.findTrajectory();
+        Trajectory trajectory2 = planner2.findTrajectory();
+        assertNotNull(trajectory1, "The trajectory found should not be null");
+        assertEquals(0, trajectory1.calculateCollisions(), "The trajectory found should have no collisions");
+        assertEquals(trajectory1.toString(), trajectory2.toString(), "Seeded island runs should find the same trajectory");
+    }
+
+    @Test
+    void testTournamentSelectionFindsTrajectory() {
+        Random rng = new Random(42);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        int[] lengths = new Random(7).ints(100, 0, 2).toArray();
+        Planner planner = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(new Point(10, 10)).end(new Point(990, 990)).lengths(lengths).generator(new PointGenerator(rng)).obstacles(obstacles).rng(rng).tournamentSize(3).build();
+        Trajectory trajectory = planner.findTrajectory();
+        assertNotNull(trajectory, "The trajectory found should not be null");
+        assertEquals(0, trajectory.calculateCollisions(), "The trajectory found should have no collisions");
+    }
+
+    @Test
+    void testPenetrationFitnessFindsTrajectory() {
+        Random rng = new Random(42);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        int[] lengths = new Random(7).ints(100, 0, 2).toArray();
+        Planner planner = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(new Point(10, 10)).end(new Point(990, 990)).lengths(lengths).generator(new PointGenerator(rng)).obstacles(obstacles).rng(rng).fitnessMode(FitnessMode.PENETRATION).build();
+        Trajectory trajectory = planner.findTrajectory();
+        assertNotNull(trajectory, "The trajectory found should not be null");
+        assertEquals(0, trajectory.calculateCollisions(), "The trajectory found should have no collisions");
+    }
+
+    @Test
+    void testInvalidIslandParameters() {
+        Random rng = new Random(42);
+        Planner.Builder builder = new Planner.Builder().start(new Point(10, 10)).end(new Point(990, 990)).lengths(new int[]{1, 1, 1}).generator(new PointGenerator(rng)).obstacles(new ArrayList<>()).rng(rng);
+        assertThrows(IllegalArgumentException.class, () -> builder.islands(0).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.islands(2).migrationInterval(0).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.islands(2).migrationInterval(5).migrationSize(4).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.islands(1).migrationSize(2).tournamentSize(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.tournamentSize(0).fitnessMode(null).build());
+    }
+
+    @Test
+    void testAnytimePublishesImprovingTrajectories() {
+        Random rng = new Random(1);
+        Point start = new Point(10, 10);
+        Point end = new Point(990, 990);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        int[] lengths = rng.ints(200, 0, 2).toArray();
+        Planner planner = new Planner.Builder().pm(0.5).pa(0.3).pr(0.2).start(start).end(end).lengths(lengths).generator(new PointGenerator(rng)).obstacles(obstacles).rng(rng).build();
+
+        List<Trajectory> published = new ArrayList<>();
+        Trajectory trajectory = planner.findTrajectoryAsync(Duration.ofSeconds(30), published::add).join();
+        assertNotNull(trajectory, "The trajectory found should not be null");
+        assertEquals(0, trajectory.calculateCollisions(), "The trajectory found should have no collisions");
+        assertEquals(trajectory, published.get(published.size() - 1), "The last published trajectory should be the result");
+        for (int i = 1; i < published.size(); i++) {
+            Trajectory previous = published.get(i - 1);
+            Trajectory current = published.get(i);
+            assertTrue(current.getCollisionCount() < previous.getCollisionCount()
+                    || (current.getCollisionCount() == previous.getCollisionCount() && current.getLength() < previous.getLength()), "Published trajectories should keep improving");
+        }
+    }
+
+    @Test
+    void testAnytimeDeadlineAndCancellation() {
+        Random rng = new Random(42);
+        Point start = new Point(10, 10);
+        Point end = new Point(990, 990);
+        int[] lengths = {5, 10, 15, 20};
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 495)); // Impossible trajectory
+
+        Planner expired = new Planner.Builder().start(start).end(end).lengths(lengths).generator(new PointGenerator(rng)).obstacles(obstacles).rng(rng).build();
+        assertNull(expired.findTrajectoryAsync(Duration.ZERO).join(), "No trajectory should be found without a budget");
+
+        Planner cancelled = new Planner.Builder().start(start).end(end).lengths(lengths).generator(new PointGenerator(rng)).obstacles(obstacles).rng(rng).build();
+        // The search waits in its first improvement until the future is cancelled, so it cannot finish before that
+        CountDownLatch cancelling = new CountDownLatch(1);
+        CompletableFuture<Trajectory> future = cancelled.findTrajectoryAsync(Duration.ofMinutes(1), trajectory -> {
+            try {
+                cancelling.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        future.cancel(true);
+        cancelling.countDown();
+        assertTrue(future.isCancelled(), "The planning future should be cancelled");
+    }
+
+    @Test
+    void testGeneticPathPlannerWithoutBudgetIsRepeatable() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Rectangle(new Point[]{new Point(450, 200), new Point(550, 200), new Point(550, 800), new Point(450, 800)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Random firstRng = new Random(5);
+            Random secondRng = new Random(5);
+            PathPlanner first = new GeneticPathPlanner(map, new PointGenerator(firstRng), firstRng, pool, 0.5, 0.3, 0.2);
+            PathPlanner second = new GeneticPathPlanner(map, new PointGenerator(secondRng), secondRng, ForkJoinPool.commonPool(), 0.5, 0.3, 0.2);
+            Trajectory trajectory = first.plan(new Point(200, 500), new Point(800, 500));
+            assertNotNull(trajectory);
+            assertEquals(0, trajectory.calculateCollisions());
+            assertEquals(trajectory.getPoints(), second.plan(new Point(200, 500), new Point(800, 500)).getPoints(),
+                    "The same random number generator should give the same trajectory on any pool");
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new GeneticPathPlanner(map, new PointGenerator(new Random()), new Random(), (ForkJoinPool) null, 0.5, 0.3, 0.2));
+    }
 }
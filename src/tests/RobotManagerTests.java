@@ -223,4 +223,95 @@ public class RobotManagerTests {
         assertEquals(4, manager.getSubscribers().size());
     }
 
+    @Test
+    public void testRequestAssignedOncePlanningIsDone() {
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        DeliveryMap deliveryMap = new DeliveryMap(new ArrayList<>());
+        ArrayList<Runnable> plannerTasks = new ArrayList<>();
+        LinkedHashSet<Robot> robots = new LinkedHashSet<>(2);
+        robots.add(new Robot(new Point(15, 15), deliveryMap, generator, rng, plannerTasks::add));
+        robots.add(new Robot(new Point(975, 975), deliveryMap, generator, rng, plannerTasks::add));
+        RequestQueue queue = new RequestQueue();
+        queue.addRequest(new Request(new Point(900, 900), new Point(850, 850)));
+        RobotManager manager = new RobotManager(robots, queue, plannerTasks::add);
+        manager.update();
+        manager.update();
+        assertEquals(1, queue.size());
+        assertEquals(2, manager.getSubscribers().size());
+        plannerTasks.remove(0).run();
+        manager.update();
+        assertTrue(queue.isEmpty());
+        assertEquals(1, manager.getSubscribers().size());
+    }
+
+    @Test
+    public void testSearchResultIsCheckedAgainstEnergyWhenApplied() {
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        DeliveryMap deliveryMap = new DeliveryMap(new ArrayList<>());
+        ArrayList<Runnable> plannerTasks = new ArrayList<>();
+        var robot = new Robot(new Point(15, 15), deliveryMap, generator, rng, plannerTasks::add) {
+            void drain() {
+                this.energy = 1;
+            }
+        };
+        RequestQueue queue = new RequestQueue();
+        Request request = new Request(new Point(900, 900), new Point(850, 850));
+        queue.addRequest(request);
+        RobotManager manager = new RobotManager(new LinkedHashSet<>(List.of(robot)), queue, plannerTasks::add);
+        manager.update();
+        while (!plannerTasks.isEmpty())
+            plannerTasks.remove(0).run();
+        // The robot used up its energy while the answer of the search waited to be applied
+        robot.drain();
+        manager.update();
+        assertNull(manager.getCurrentRequest(robot));
+        assertEquals(List.of(request), new ArrayList<>(queue.getRequests()));
+        assertEquals(1, manager.getSubscribers().size());
+    }
+
+    @Test
+    public void testBatchDispatchMinimisesTravel() {
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        DeliveryMap deliveryMap = new DeliveryMap(new ArrayList<>());
+        Robot near = new Robot(new Point(15, 15), deliveryMap, generator, rng);
+        Robot far = new Robot(new Point(975, 975), deliveryMap, generator, rng);
+        LinkedHashSet<Robot> robots = new LinkedHashSet<>(List.of(near, far));
+        // The first request is a bit closer to the near robot, greedy dispatch would send the far one to the second
+        Request middle = new Request(new Point(480, 480), new Point(480, 530));
+        Request corner = new Request(new Point(100, 100), new Point(150, 100));
+        RequestQueue queue = new RequestQueue();
+        queue.addRequest(middle);
+        queue.addRequest(corner);
+        RobotManager manager = new RobotManager(robots, queue, Runnable::run, DispatchMode.BATCH);
+        manager.update();
+        assertTrue(queue.isEmpty());
+        assertSame(corner, manager.getCurrentRequest(near));
+        assertSame(middle, manager.getCurrentRequest(far));
+        assertTrue(manager.getSubscribers().isEmpty());
+    }
+
+    @Test
+    public void testBatchDispatchMovesUnreachableRequestsToQueueEnd() {
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        DeliveryMap deliveryMap = new DeliveryMap(new ArrayList<>());
+        Robot robot = new Robot(new Point(15, 15), deliveryMap, generator, rng);
+        RequestQueue queue = new RequestQueue();
+        // Delivering across the map takes more than a full battery
+        Request across = new Request(new Point(100, 100), new Point(900, 900));
+        Request nearby = new Request(new Point(100, 100), new Point(150, 150));
+        queue.addRequest(across);
+        queue.addRequest(nearby);
+        RobotManager manager = new RobotManager(new LinkedHashSet<>(List.of(robot)), queue, Runnable::run, DispatchMode.BATCH);
+        manager.update();
+        assertEquals(List.of(nearby, across), new ArrayList<>(queue.getRequests()));
+        assertNull(manager.getCurrentRequest(robot));
+        manager.update();
+        assertEquals(List.of(across), new ArrayList<>(queue.getRequests()));
+        assertSame(nearby, manager.getCurrentRequest(robot));
+        assertTrue(manager.getSubscribers().isEmpty());
+    }
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 import static org.junit.Assert.*;
@@ -162,7 +163,102 @@ public class RobotTests {
         assertTrue(working);
     }
 
+    @Test
+    public void testWaitsInPlanningUntilTrajectoryIsPlanned() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        ArrayList<Runnable> plannerTasks = new ArrayList<>();
+        Robot robot = new Robot(new Point(0, 0), map, new PointGenerator(new Random(0)), new Random(0), plannerTasks::add);
+        LinkedHashSet<Robot> robots = new LinkedHashSet<>(4);
+        robots.add(robot);
+        RobotManager rm = new RobotManager(robots, new RequestQueue());
+        robot.assignRequest(new Request(new Point(100, 100), new Point(200, 200)));
+        Assert.assertEquals(RobotPowerState.PLANNING, robot.getPowerState());
+        assertFalse(rm.getSubscribers().contains(robot));
+        robot.update();
+        Assert.assertEquals(RobotPowerState.PLANNING, robot.getPowerState());
+        Assert.assertEquals(new Point(0, 0), robot.getCurrentPosition());
+        plannerTasks.forEach(Runnable::run);
+        robot.update();
+        Assert.assertEquals(RobotPowerState.ENROUTE, robot.getPowerState());
+    }
 
+    @Test
+    public void testHandsRequestBackWhenItsTrajectoryCannotBePlanned() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Random random = new Random(0);
+        PointGenerator pointGenerator = new PointGenerator(random);
+        AtomicBoolean failing = new AtomicBoolean();
+        PathPlanner planner = (start, end) -> {
+            if (failing.get())
+                return null;
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(start);
+            points.add(end);
+            return new Trajectory(points, pointGenerator, map.obstacles(), random);
+        };
+        ArrayList<Runnable> plannerTasks = new ArrayList<>();
+        Robot robot = new Robot(new Point(100, 100), map, pointGenerator, random, plannerTasks::add, planner);
+        LinkedHashSet<Robot> robots = new LinkedHashSet<>(4);
+        robots.add(robot);
+        RequestQueue queue = new RequestQueue();
+        Request request = new Request(new Point(200, 100), new Point(300, 100));
+        queue.addRequest(request);
+        queue.addRequest(new Request(new Point(400, 100), new Point(500, 100)));
+        RobotManager rm = new RobotManager(robots, queue);
+        rm.update();
+        assertSame(request, rm.getCurrentRequest(robot));
+        Assert.assertEquals(RobotPowerState.PLANNING, robot.getPowerState());
+        // The trajectory checked by the manager cannot be planned again by the robot
+        map.trajectoryCache().clear();
+        failing.set(true);
+        plannerTasks.forEach(Runnable::run);
+        robot.update();
+        Assert.assertEquals(RobotPowerState.STANDBY, robot.getPowerState());
+        assertNull(rm.getCurrentRequest(robot));
+        assertSame(request, queue.getNextRequest());
+        Assert.assertEquals(2, queue.size());
+        assertTrue(rm.getSubscribers().contains(robot));
+    }
 
-
+    @Test
+    public void testLeavesByEstimateAndPlansWayHomeOnThePlannerExecutor() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Random random = new Random(0);
+        PointGenerator pointGenerator = new PointGenerator(random);
+        ArrayList<Point> homes = new ArrayList<>();
+        // Every trajectory home is a detour about four times as long as the straight line
+        PathPlanner detours = (start, end) -> {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(start);
+            if (end.equals(new Point(100, 100))) {
+                homes.add(start);
+                points.add(new Point(start.x(), 900));
+            }
+            points.add(end);
+            return new Trajectory(points, pointGenerator, map.obstacles(), random);
+        };
+        ArrayList<Runnable> plannerTasks = new ArrayList<>();
+        Robot robot = new Robot(new Point(100, 100), map, pointGenerator, random, plannerTasks::add, detours);
+        LinkedHashSet<Robot> robots = new LinkedHashSet<>(4);
+        robots.add(robot);
+        RobotManager rm = new RobotManager(robots, new RequestQueue());
+        robot.subscribeToManager(rm);
+        ArrayList<Point> out = new ArrayList<>();
+        out.add(new Point(100, 100));
+        out.add(new Point(500, 100));
+        robot.setPath(new Trajectory(out, pointGenerator, map.obstacles(), random));
+        while (robot.getPowerState() != RobotPowerState.PLANNING)
+            robot.update();
+        assertTrue("Standby decisions should not plan", homes.isEmpty());
+        assertEquals(1, plannerTasks.size());
+        plannerTasks.forEach(Runnable::run);
+        assertEquals(1, homes.size());
+        robot.update();
+        assertEquals(RobotPowerState.RETURNING, robot.getPowerState());
+        while (robot.getPowerState() == RobotPowerState.RETURNING)
+            robot.update();
+        // The detour is too long for the energy left, so the shortest path is followed
+        assertEquals(RobotPowerState.CHARGING, robot.getPowerState());
+        assertTrue(robot.getEnergy() >= 0);
+    }
 }
@@ -0,0 +1,52 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentCollisionMemoTests {
+
+    @Test
+    void testVersionedLookups() {
+        SegmentCollisionMemo memo = new SegmentCollisionMemo(100);
+        long key = SegmentCollisionMemo.key(IntPointList.pack(new Point(999, 0)), IntPointList.pack(new Point(0, 999)));
+        assertNotEquals(key, SegmentCollisionMemo.key(IntPointList.pack(new Point(0, 999)), IntPointList.pack(new Point(999, 0))));
+        assertNull(memo.get(key, 0));
+        long[] mask = {5};
+        memo.put(key, 0, mask);
+        assertSame(mask, memo.get(key, 0));
+        assertNull(memo.get(key, 1), "Collisions from another version of the map should not be returned");
+        assertEquals(1, memo.hits());
+        assertEquals(2, memo.misses());
+        assertThrows(IllegalArgumentException.class, () -> new SegmentCollisionMemo(0));
+    }
+
+    @Test
+    void testSharedByPlannersAndInvalidatedByObstacles() {
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 50));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(new Point(100, 500));
+        points.add(new Point(900, 500));
+        points.add(new Point(900, 100));
+        Random rng = new Random(0);
+        Trajectory first = new Trajectory(points, new PointGenerator(rng), map.obstacleGrid(), rng);
+        long misses = map.segmentCollisionMemo().misses();
+        Trajectory second = new Trajectory(points, new PointGenerator(rng), map.obstacleGrid(), rng);
+        assertEquals(misses, map.segmentCollisionMemo().misses(), "Segments tested by one trajectory should be remembered for the next");
+        assertEquals(1, first.getCollisionCount());
+        assertEquals(1, second.getCollisionCount());
+        assertEquals(1, second.calculateCollisions());
+
+        map.addObstacle(new Circle(new Point(900, 300), 20));
+        assertEquals(1, map.version());
+        Trajectory third = new Trajectory(points, new PointGenerator(rng), map.obstacleGrid(), rng);
+        assertEquals(2, third.getCollisionCount(), "Segments should be tested again after an obstacle is added");
+        assertEquals(2, third.calculateCollisions());
+    }
+}
@@ -246,8 +246,26 @@ public class ShapeTests {
         Assertions.assertFalse(rectangle.surrounds(p));
     }
 
+    @Test
+    public void testPenetrationCircle() {
+        Circle circle = new Circle(new Point(10, 10), 5);
+        Assertions.assertEquals(10, circle.penetration(new LineSegment(new Point(0, 10), new Point(20, 10))), 1e-9);
+        Assertions.assertEquals(5, circle.penetration(new LineSegment(new Point(10, 10), new Point(20, 10))), 1e-9);
+        Assertions.assertEquals(2, circle.penetration(new LineSegment(new Point(9, 10), new Point(11, 10))), 1e-9);
+        Assertions.assertEquals(8, circle.penetration(new LineSegment(new Point(0, 13), new Point(20, 13))), 1e-9);
+        Assertions.assertEquals(0, circle.penetration(new LineSegment(new Point(0, 15), new Point(20, 15))), 1e-9);
+        Assertions.assertEquals(0, circle.penetration(new LineSegment(new Point(0, 30), new Point(20, 30))), 1e-9);
+    }
 
-
-
+    @Test
+    public void testPenetrationPolygon() {
+        Rectangle rectangle = new Rectangle(new Point[]{new Point(10, 10), new Point(16, 10), new Point(16, 13), new Point(10, 13)});
+        Assertions.assertEquals(6, rectangle.penetration(new LineSegment(new Point(8, 11), new Point(18, 11))), 1e-9);
+        Assertions.assertEquals(3, rectangle.penetration(new LineSegment(new Point(13, 11), new Point(18, 11))), 1e-9);
+        Assertions.assertEquals(Math.sqrt(18), rectangle.penetration(new LineSegment(new Point(9, 9), new Point(17, 17))), 1e-9);
+        Assertions.assertEquals(0, rectangle.penetration(new LineSegment(new Point(8, 15), new Point(18, 15))), 1e-9);
+        Triangle triangle = new Triangle(new Point[]{new Point(10, 10), new Point(14, 10), new Point(12, 14)});
+        Assertions.assertEquals(2, triangle.penetration(new LineSegment(new Point(5, 12), new Point(20, 12))), 1e-9);
+        Assertions.assertEquals(0, triangle.penetration(new LineSegment(new Point(15, 11), new Point(17, 13))), 1e-9);
+    }
 }
-
@@ -0,0 +1,192 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrajectoryCacheTests {
+
+    private Trajectory straightLine(Point start, Point end) {
+        Random rng = new Random(0);
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(start);
+        points.add(end);
+        return new Trajectory(points, new PointGenerator(rng), new ArrayList<>(), rng);
+    }
+
+    @Test
+    void testKeyRoundTrip() {
+        Point start = new Point(999, 0);
+        Point end = new Point(123, 999);
+        long key = TrajectoryCache.key(start, end);
+        assertEquals(start, TrajectoryCache.start(key));
+        assertEquals(end, TrajectoryCache.end(key));
+        assertNotEquals(key, TrajectoryCache.key(end, start));
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        TrajectoryCache cache = new TrajectoryCache(100);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        assertFalse(cache.contains(start, end));
+        Trajectory planned = cache.computeIfAbsent(start, end, () -> straightLine(start, end));
+        assertTrue(cache.contains(start, end));
+        assertFalse(cache.contains(end, start), "Only the planned direction is cached");
+        Trajectory cached = cache.computeIfAbsent(start, end, () -> fail("Cached trajectory should not be planned again"));
+        assertSame(planned, cached);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.storedPoints());
+    }
+
+    @Test
+    void testFailedPlansArePlannedAgainAfterAFewLookups() {
+        TrajectoryCache cache = new TrajectoryCache(100);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        assertNull(cache.computeIfAbsent(start, end, () -> null));
+        for (int i = 0; i < TrajectoryCache.FAILED_PLAN_LOOKUPS; i++) {
+            assertTrue(cache.contains(start, end));
+            assertNull(cache.computeIfAbsent(start, end, () -> fail("Failed plan should not be planned again yet")));
+        }
+        assertFalse(cache.contains(start, end));
+        Trajectory planned = cache.computeIfAbsent(start, end, () -> straightLine(start, end));
+        assertNotNull(planned, "Expired failed plan should be planned again");
+        assertSame(planned, cache.computeIfAbsent(start, end, () -> fail("Cached trajectory should not be planned again")));
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.storedPoints());
+    }
+
+    @Test
+    void testEvictsByStoredPoints() {
+        TrajectoryCache cache = new TrajectoryCache(4);
+        for (int i = 0; i < 3; i++) {
+            Point start = new Point(i, 0);
+            Point end = new Point(i, 10);
+            cache.computeIfAbsent(start, end, () -> straightLine(start, end));
+        }
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.storedPoints());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void testRecentlyUsedTrajectoriesAreKept() {
+        TrajectoryCache cache = new TrajectoryCache(4);
+        Point start0 = new Point(0, 0);
+        Point end0 = new Point(0, 10);
+        Point start1 = new Point(1, 0);
+        Point end1 = new Point(1, 10);
+        Point start2 = new Point(2, 0);
+        Point end2 = new Point(2, 10);
+        cache.computeIfAbsent(start0, end0, () -> straightLine(start0, end0));
+        cache.computeIfAbsent(start1, end1, () -> straightLine(start1, end1));
+        cache.computeIfAbsent(start0, end0, () -> fail("Cached trajectory should not be planned again"));
+        cache.computeIfAbsent(start2, end2, () -> straightLine(start2, end2));
+        assertNotNull(cache.computeIfAbsent(start0, end0, () -> fail("Recently used trajectory should not be evicted")));
+    }
+
+    @Test
+    void testRobotsShareTheMapCache() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        Robot robot1 = new Robot(new Point(0, 0), map, new PointGenerator(new Random(0)), new Random(0));
+        Robot robot2 = new Robot(new Point(10, 10), map, new PointGenerator(new Random(1)), new Random(1));
+        Trajectory trajectory = robot1.getTrajectory(new Point(100, 100), new Point(500, 500));
+        assertSame(trajectory, robot2.getTrajectory(new Point(100, 100), new Point(500, 500)));
+        assertEquals(1, map.trajectoryCache().getHits());
+        map.addObstacle(new Circle(new Point(300, 300), 10));
+        assertEquals(0, map.trajectoryCache().size());
+    }
+
+    @Test
+    void testOppositeDirectionIsServedReversed() {
+        TrajectoryCache cache = new TrajectoryCache(100);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        Trajectory planned = cache.computeIfAbsent(start, end, () -> straightLine(start, end));
+        Trajectory reversed = cache.computeIfAbsent(end, start, () -> fail("Opposite direction should not be planned"));
+        assertEquals(end, reversed.getPoints().get(0));
+        assertEquals(start, reversed.getPoints().get(1));
+        assertEquals(planned.getLength(), reversed.getLength());
+        assertEquals(1, cache.getReverseHits());
+        assertSame(reversed, cache.computeIfAbsent(end, start, () -> fail("Reversed trajectory should be cached")));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testOppositeDirectionOfFailedPlanIsPlanned() {
+        TrajectoryCache cache = new TrajectoryCache(100);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        assertNull(cache.computeIfAbsent(start, end, () -> null));
+        assertNotNull(cache.computeIfAbsent(end, start, () -> straightLine(end, start)));
+        assertEquals(0, cache.getReverseHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testConcurrentMissesPlanOnce() throws Exception {
+        TrajectoryCache cache = new TrajectoryCache(1000);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        AtomicInteger plans = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Trajectory>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                lookups.add(pool.submit(() -> {
+                    ready.await();
+                    return cache.computeIfAbsent(start, end, () -> {
+                        plans.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return straightLine(start, end);
+                    });
+                }));
+            ready.countDown();
+            Trajectory first = lookups.get(0).get();
+            for (Future<Trajectory> lookup : lookups)
+                assertSame(first, lookup.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, plans.get());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testPlanRunningDuringClearIsNotCached() {
+        TrajectoryCache cache = new TrajectoryCache(1000);
+        Point start = new Point(10, 10);
+        Point end = new Point(20, 20);
+        Trajectory stale = cache.computeIfAbsent(start, end, () -> {
+            // An obstacle is added to the map while the trajectory is planned
+            cache.clear();
+            return straightLine(start, end);
+        });
+        assertNotNull(stale);
+        assertFalse(cache.contains(start, end));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.storedPoints());
+        Trajectory fresh = cache.computeIfAbsent(start, end, () -> straightLine(start, end));
+        assertNotSame(stale, fresh);
+        assertTrue(cache.contains(start, end));
+        assertEquals(2, cache.storedPoints());
+    }
+}
@@ -47,6 +47,69 @@ public class TrajectoryPopulationTests{
         assertNotEquals(population.getIndividuals(), selectedPopulation.getIndividuals(), "The selected population should not be the same as the original population");
     }
 
+    @Test
+    void testRankBasedSelectionFollowsRanks() {
+        Trajectory fittest = java.util.Collections.max(population.getIndividuals(), java.util.Comparator.comparingDouble(Trajectory::fitness));
+        Trajectory leastFit = java.util.Collections.min(population.getIndividuals(), java.util.Comparator.comparingDouble(Trajectory::fitness));
+        int fittestWins = 0;
+        int leastFitWins = 0;
+        for (int i = 0; i < 3000; i++)
+            for (Trajectory t : population.rankBasedSelection().getIndividuals()) {
+                if (t == fittest) fittestWins++;
+                if (t == leastFit) leastFitWins++;
+            }
+        // Ranks 5 and 1 are picked with probabilities 5/15 and 1/15, out of 15000 picks
+        assertEquals(5000, fittestWins, 300);
+        assertEquals(1000, leastFitWins, 150);
+    }
+
+    @Test
+    void testTournamentSelection() {
+        Trajectory fittest = java.util.Collections.max(population.getIndividuals(), java.util.Comparator.comparingDouble(Trajectory::fitness));
+        assertEquals(5, population.tournamentSelection(2).getIndividuals().size(), "The selected population size should be the same as the original population size");
+        for (int i = 0; i < 20; i++)
+            assertTrue(population.tournamentSelection(1000).getIndividuals().stream().allMatch(t -> t == fittest), "Large tournaments should always be won by the fittest");
+        assertThrows(IllegalArgumentException.class, () -> population.tournamentSelection(0));
+    }
+
+    @Test
+    void testFreeSpaceGeneratorAvoidsObstacles() {
+        Random rng = new Random(3);
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(60, 60), 40));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        int[] lengths = new int[50];
+        java.util.Arrays.fill(lengths, 3);
+        TrajectoryPopulation free = new TrajectoryPopulation(new Point(10, 10), new Point(990, 990), 50, lengths, new PointGenerator(rng, map), map.obstacleGrid(), rng);
+        for (Trajectory t : free.getIndividuals())
+            for (Point p : t.getPoints())
+                assertFalse(map.occupancy().isOccupied(p), "Points should be generated in free space");
+        TrajectoryPopulation anywhere = new TrajectoryPopulation(new Point(10, 10), new Point(990, 990), 50, lengths, new PointGenerator(rng), map.obstacleGrid(), rng);
+        assertTrue(anywhere.getIndividuals().stream().flatMap(t -> t.getPoints().stream()).anyMatch(p -> map.occupancy().isOccupied(p)), "Without a map points should land in obstacles");
+
+        PointGenerator generator = new PointGenerator(rng).within(map);
+        map.addObstacle(new Rectangle(new Point[]{new Point(0, 0), new Point(400, 0), new Point(400, 999), new Point(0, 999)}));
+        for (int i = 0; i < 1000; i++) {
+            Point p = generator.generateGaussianPoint(50, new Point(100, 500), new Point(300, 500));
+            assertFalse(map.occupancy().isOccupied(p), "Generators should follow obstacles added to the map");
+            assertTrue(generator.withRandom(rng).isFree(IntPointList.pack(p)));
+        }
+    }
+
+    @Test
+    void testDrawsFreePixelsWhenTheGaussianKeepsMissing() {
+        ArrayList<Shape> obstacles = new ArrayList<>();
+        // Only a strip along the right edge of the map is left free
+        obstacles.add(new Rectangle(new Point[]{new Point(0, 0), new Point(990, 0), new Point(990, 999), new Point(0, 999)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        PointGenerator generator = new PointGenerator(new Random(4), map);
+        for (int i = 0; i < 1000; i++)
+            assertFalse(map.occupancy().isOccupied(generator.generateGaussianPoint(1, new Point(100, 500), new Point(100, 500))), "Every point should be free");
+        map.addObstacle(new Circle(new Point(500, 500), 800));
+        assertEquals(0, map.occupancy().freePixels());
+        assertThrows(IllegalStateException.class, () -> generator.generateGaussianPoint(1, new Point(100, 500), new Point(100, 500)));
+    }
+
     @Test
     void testTrajectoriesStartAndEnd() {
         for (Trajectory t : population.getIndividuals()) {
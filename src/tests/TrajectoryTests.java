@@ -185,4 +185,154 @@ public class TrajectoryTests {
         Assertions.assertEquals(trajectory,new Trajectory(pontosAL1,generator,figuras,rng));
     }
 
+    @Test
+    public void testReverse(){
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        Point[] points = new Point[]{new Point(2,1),new Point(6,2),new Point(9,3)};
+        ArrayList<Point> pontosAL = new ArrayList<>();
+        Collections.addAll(pontosAL, points);
+        ArrayList<Shape> figuras = new ArrayList<>();
+        figuras.add(new Circle(new Point(6,3),1));
+        Trajectory trajectory = new Trajectory(pontosAL,generator,figuras,rng);
+        Trajectory reversed = trajectory.reverse();
+        Collections.reverse(pontosAL);
+        Assertions.assertEquals(pontosAL,reversed.getPoints());
+        Assertions.assertEquals(trajectory.getLength(),reversed.getLength(),1e-9);
+        Assertions.assertEquals(trajectory.getCollisionCount(),reversed.getCollisionCount());
+    }
+
+    @Test
+    public void testIncrementalCollisionsAndFitnessMatchFullRecount(){
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+        ArrayList<Shape> figuras = new ArrayList<>();
+        for (int i = 0; i < 90; i++)
+            figuras.add(shapeGenerator.generateShape(ShapeType.values()[i % 3]));
+        for (java.util.List<Shape> obstacles : java.util.List.of(figuras, new ObstacleGrid(figuras))) {
+            ArrayList<Point> pontosAL = new ArrayList<>();
+            Collections.addAll(pontosAL, new Point(10,10), new Point(500,500), new Point(990,990));
+            Trajectory trajectory = new Trajectory(pontosAL,generator,obstacles,rng);
+            for (int i = 0; i < 2000; i++) {
+                trajectory.mutate(0.5);
+                trajectory.addPoint(0.3);
+                trajectory.removePoint(0.2);
+                Assertions.assertEquals(trajectory.calculateCollisions(),trajectory.getCollisionCount());
+                double fitness = Math.exp((200 / trajectory.getLength()) * (trajectory.getCollisionCount() == 0 ? 1 : 0)) - 1;
+                Assertions.assertEquals(fitness,trajectory.fitness());
+            }
+        }
+    }
+
+    @Test
+    public void testCrossoverKeepsCollisionsOfParents(){
+        Random rng = new Random(1);
+        PointGenerator generator = new PointGenerator(rng);
+        ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+        ArrayList<Shape> figuras = new ArrayList<>();
+        for (int i = 0; i < 90; i++)
+            figuras.add(shapeGenerator.generateShape(ShapeType.values()[i % 3]));
+        ObstacleGrid grid = new ObstacleGrid(figuras);
+        for (int t = 0; t < 300; t++) {
+            ArrayList<Point> pontosAL = new ArrayList<>();
+            ArrayList<Point> pontosAL1 = new ArrayList<>();
+            for (int i = 0; i < 2 + t % 8; i++) {
+                pontosAL.add(new Point(rng.nextInt(50) * 20, rng.nextInt(50) * 20));
+                pontosAL1.add(new Point(rng.nextInt(50) * 20, rng.nextInt(50) * 20));
+            }
+            Trajectory trajectory = new Trajectory(pontosAL,generator,grid,rng);
+            Trajectory trajectory1 = new Trajectory(pontosAL1,generator,grid,rng);
+            for (Trajectory child : trajectory.onePointCrossover(trajectory1)) {
+                Assertions.assertEquals(child.calculateCollisions(),child.getCollisionCount());
+                Assertions.assertEquals(new Trajectory(child.getPoints(),generator,grid,rng).getLength(),child.getLength());
+            }
+        }
+    }
+
+    @Test
+    public void testPenetrationFitness(){
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        ArrayList<Shape> figuras = new ArrayList<>();
+        figuras.add(new Circle(new Point(500,500),100));
+        ArrayList<Point> through = new ArrayList<>();
+        Collections.addAll(through, new Point(300,500), new Point(700,500));
+        ArrayList<Point> grazing = new ArrayList<>();
+        Collections.addAll(grazing, new Point(300,580), new Point(700,580));
+        ArrayList<Point> around = new ArrayList<>();
+        Collections.addAll(around, new Point(300,500), new Point(300,700), new Point(700,700), new Point(700,500));
+        Trajectory deep = new Trajectory(through,generator,figuras,rng,FitnessMode.PENETRATION);
+        Trajectory shallow = new Trajectory(grazing,generator,figuras,rng,FitnessMode.PENETRATION);
+        Trajectory free = new Trajectory(around,generator,figuras,rng,FitnessMode.PENETRATION);
+        Assertions.assertEquals(200,deep.penetration(),1e-9);
+        Assertions.assertEquals(120,shallow.penetration(),1e-9);
+        Assertions.assertEquals(0,free.penetration());
+        Assertions.assertTrue(free.fitness() > shallow.fitness() && shallow.fitness() > deep.fitness());
+        Assertions.assertEquals(free.fitness(),new Trajectory(around,generator,figuras,rng).fitness());
+        Assertions.assertEquals(0,new Trajectory(through,generator,figuras,rng).fitness());
+        for (Trajectory child : deep.onePointCrossover(free))
+            Assertions.assertEquals(FitnessMode.PENETRATION,child.getFitnessMode());
+    }
+
+    @Test
+    public void testDetourOperators(){
+        Random rng = new Random(3);
+        PointGenerator generator = new PointGenerator(rng);
+        ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+        ArrayList<Shape> figuras = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+            figuras.add(shapeGenerator.generateShape(ShapeType.values()[i % 3]));
+        ObstacleGrid grid = new ObstacleGrid(figuras);
+        ArrayList<Point> pontosAL = new ArrayList<>();
+        Collections.addAll(pontosAL, new Point(10,10), new Point(500,500), new Point(990,990));
+        Trajectory trajectory = new Trajectory(pontosAL,generator,grid,rng);
+        for (int i = 0; i < 2000; i++) {
+            trajectory.mutateNearObstacle(0.5);
+            trajectory.addPointNearObstacle(0.5);
+            trajectory.removePoint(0.2);
+            Assertions.assertEquals(trajectory.calculateCollisions(),trajectory.getCollisionCount());
+            Assertions.assertEquals(new Point(10,10),trajectory.getPoints().get(0));
+            Assertions.assertEquals(new Point(990,990),trajectory.getPoints().get(trajectory.pointCount() - 1));
+        }
+
+        ArrayList<Shape> circle = new ArrayList<>();
+        circle.add(new Circle(new Point(500,500),100));
+        ArrayList<Point> through = new ArrayList<>();
+        Collections.addAll(through, new Point(20,480), new Point(980,480));
+        Trajectory blocked = new Trajectory(through,generator,circle,rng);
+        blocked.addPointNearObstacle(1);
+        Point detour = blocked.getPoints().get(1);
+        Assertions.assertTrue(detour.y() < 500 - 100, "The detour should go around the side of the circle the segment passes");
+        Assertions.assertEquals(0,blocked.getCollisionCount());
+
+        Trajectory free = new Trajectory(new ArrayList<>(java.util.List.of(new Point(10,10), new Point(20,20))),generator,circle,rng);
+        free.addPointNearObstacle(1);
+        free.mutateNearObstacle(1);
+        Assertions.assertEquals(2,free.pointCount());
+    }
+
+    @Test
+    public void testCursorVisitsPointsAlongTrajectory(){
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        for (int t = 0; t < 200; t++) {
+            ArrayList<Point> pontosAL = new ArrayList<>();
+            for (int i = 0; i < t % 6 + 1; i++)
+                pontosAL.add(new Point(rng.nextInt(1000), rng.nextInt(1000)));
+            Trajectory trajectory = new Trajectory(pontosAL,generator,new ArrayList<>(),rng);
+            PathCursor cursor = trajectory.cursor();
+            ArrayList<Point> visited = new ArrayList<>();
+            int pixels = trajectory.calculatePointsAlongTrajectory().size();
+            while (cursor.hasNext()) {
+                Assertions.assertEquals(pixels - visited.size(), cursor.remaining());
+                cursor.advance();
+                visited.add(new Point(cursor.x(), cursor.y()));
+            }
+            Assertions.assertEquals(0, cursor.remaining());
+            Assertions.assertEquals(trajectory.calculatePointsAlongTrajectory(),visited);
+            Assertions.assertThrows(IllegalStateException.class, cursor::advance);
+        }
+    }
+
 }
@@ -0,0 +1,107 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import simulator.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VisibilityGraphTests {
+
+    @Test
+    void testStraightLineWhenNothingIsInTheWay() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(map, new PointGenerator(new Random(0)), new Random(0));
+        Trajectory trajectory = planner.plan(new Point(100, 100), new Point(900, 900));
+        assertEquals(List.of(new Point(100, 100), new Point(900, 900)), trajectory.getPoints());
+    }
+
+    @Test
+    void testGoesAroundObstacles() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 100));
+        obstacles.add(new Rectangle(new Point[]{new Point(200, 150), new Point(300, 150), new Point(300, 450), new Point(200, 450)}));
+        obstacles.add(new Triangle(new Point[]{new Point(600, 700), new Point(800, 700), new Point(700, 850)}));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(map, new PointGenerator(new Random(0)), new Random(0));
+        Point start = new Point(100, 300);
+        Point end = new Point(900, 800);
+        Trajectory trajectory = planner.plan(start, end);
+        assertNotNull(trajectory);
+        assertEquals(0, trajectory.calculateCollisions());
+        assertEquals(start, trajectory.getPoints().get(0));
+        assertEquals(end, trajectory.getPoints().get(trajectory.getPoints().size() - 1));
+        assertTrue(trajectory.getLength() < 1.2 * start.dist(end));
+    }
+
+    @Test
+    void testGoesThroughNarrowGaps() {
+        for (int gap = 3; gap <= 5; gap++) {
+            List<Shape> obstacles = new ArrayList<>();
+            obstacles.add(new Rectangle(new Point[]{new Point(400, 0), new Point(420, 0), new Point(420, 500 - gap), new Point(400, 500 - gap)}));
+            obstacles.add(new Rectangle(new Point[]{new Point(400, 500), new Point(420, 500), new Point(420, 999), new Point(400, 999)}));
+            DeliveryMap map = new DeliveryMap(obstacles);
+            VisibilityGraphPlanner planner = new VisibilityGraphPlanner(map, new PointGenerator(new Random(0)), new Random(0));
+            Trajectory trajectory = planner.plan(new Point(100, 100), new Point(900, 100));
+            assertNotNull(trajectory);
+            assertEquals(0, trajectory.calculateCollisions());
+        }
+    }
+
+    @Test
+    void testRandomMapsAreSolved() {
+        Random rng = new Random(3);
+        for (int t = 0; t < 5; t++) {
+            ShapeGenerator shapeGenerator = new ShapeGenerator(rng);
+            List<Shape> obstacles = new ArrayList<>();
+            for (int i = 0; i < 15; i++)
+                obstacles.add(shapeGenerator.generateShape(ShapeType.values()[i % 3]));
+            DeliveryMap map = new DeliveryMap(obstacles);
+            VisibilityGraphPlanner planner = new VisibilityGraphPlanner(map, new PointGenerator(rng), rng);
+            for (int q = 0; q < 20; q++) {
+                Point start = new Point(rng.nextInt(900) + 50, rng.nextInt(900) + 50);
+                Point end = new Point(rng.nextInt(900) + 50, rng.nextInt(900) + 50);
+                if (!map.isDeliveryRequestValid(new Request(start, end))) continue;
+                Trajectory trajectory = planner.plan(start, end);
+                if (trajectory != null)
+                    assertEquals(0, trajectory.calculateCollisions());
+            }
+        }
+    }
+
+    @Test
+    void testUnreachableDestination() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(500, 500), 50));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(map, new PointGenerator(new Random(0)), new Random(0));
+        assertNull(planner.plan(new Point(100, 100), new Point(500, 500)));
+    }
+
+    @Test
+    void testGraphIsRebuiltWhenObstacleIsAdded() {
+        DeliveryMap map = new DeliveryMap(new ArrayList<>());
+        VisibilityGraph graph = map.visibilityGraph();
+        assertSame(graph, map.visibilityGraph());
+        assertEquals(0, graph.size());
+        map.addObstacle(new Circle(new Point(500, 500), 50));
+        assertNotSame(graph, map.visibilityGraph());
+        assertEquals(12, map.visibilityGraph().size());
+        assertThrows(IllegalArgumentException.class, () -> new VisibilityGraphPlanner(null, new PointGenerator(new Random(0)), new Random(0)));
+    }
+
+    @Test
+    void testRobotUsesItsPathPlanner() {
+        List<Shape> obstacles = new ArrayList<>();
+        obstacles.add(new Circle(new Point(300, 300), 60));
+        DeliveryMap map = new DeliveryMap(obstacles);
+        Random rng = new Random(0);
+        PointGenerator generator = new PointGenerator(rng);
+        Robot robot = new Robot(new Point(100, 100), map, generator, rng, Runnable::run, new VisibilityGraphPlanner(map, generator, rng));
+        Trajectory trajectory = robot.getTrajectory(new Point(100, 100), new Point(500, 500));
+        assertEquals(map.visibilityGraph().shortestPath(new Point(100, 100), new Point(500, 500)), trajectory.getPoints());
+    }
+}